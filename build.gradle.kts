@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.3.4"
     id("io.spring.dependency-management") version "1.1.6"
     id("io.freefair.lombok") version "9.0.0"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "srangeldev"
@@ -22,7 +23,22 @@ repositories {
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    //Formatos binarios (Accept: application/cbor o application/x-jackson-smile); Spring MVC registra
+    //los converters solo con tenerlos en el classpath, por detrás del de JSON
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
     implementation("org.springframework.boot:spring-boot-starter-cache")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+
+    //Métricas (Actuator + Micrometer con formato Prometheus)
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
+    implementation("net.ttddyy:datasource-proxy:1.10")
+
+    //Trazas distribuidas (Micrometer Tracing + OpenTelemetry, exportadas por OTLP)
+    implementation("io.micrometer:micrometer-tracing-bridge-otel")
+    implementation("io.opentelemetry:opentelemetry-exporter-otlp")
 
     //Lombok
     implementation("org.projectlombok:lombok")
@@ -34,12 +50,23 @@ dependencies {
     //bbdd h2
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("com.h2database:h2")
+    //Migraciones versionadas del esquema (sólo se usan en el perfil "persistent")
+    implementation("org.flywaydb:flyway-core")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Microbenchmarks JMH en src/jmh/java (./gradlew jmh)
+jmh {
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    // Perfil de asignación de memoria (bytes/op) junto al tiempo
+    profilers = listOf("gc")
+}
+
 tasks.jar {
     manifest {
         // Clase principal
@@ -0,0 +1,130 @@
+package srangeldev.funkoapi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import srangeldev.funkoapi.FunkoApiApplication;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.logstore.FunkoLogStore;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+import srangeldev.funkoapi.repositories.FunkoRepositoryImpl;
+import srangeldev.funkoapi.repositories.FunkoStore;
+import srangeldev.funkoapi.repositories.StorageEngineFunkoRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Operaciones de FunkoStore con cada motor, a través de la misma interfaz que usa el servicio:
+ *
+ * - memory: FunkoRepositoryImpl detrás de StorageEngineFunkoRepository (perfil memory).
+ * - log: FunkoLogStore en un directorio temporal, con fsync (perfil log).
+ * - jpa: JpaFunkoStore sobre H2, con la aplicación arrancada con su configuración real.
+ *
+ * Se precargan `rows` Funkos; findById y save se miden también con 4 hilos a la vez (con el log,
+ * saveConcurrent muestra lo que aporta agrupar los fsync). page es una página del listado (GET /funkos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FunkoRepositoryBenchmark {
+
+    @Param({"memory", "log", "jpa"})
+    private String engine;
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private FunkoLogStore logStore;
+    private Path logDir;
+    private FunkoStore repository;
+    private Categoria categoria;
+    private long minId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (engine.equals("jpa")) {
+            context = new SpringApplicationBuilder(FunkoApiApplication.class)
+                    .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+            repository = context.getBean(FunkoStore.class);
+            // Las categorías de data.sql, tal como las devuelve JPA
+            categoria = repository.findAll().get(0).getCategoria();
+        } else if (engine.equals("log")) {
+            logDir = Files.createTempDirectory("funko-log");
+            logStore = new FunkoLogStore(logDir.resolve("funkos.log"), true, Long.MAX_VALUE, 0.5);
+            repository = new StorageEngineFunkoRepository(logStore);
+            categoria = categoriaMarvel();
+        } else {
+            FunkoRepositoryImpl memoria = new FunkoRepositoryImpl();
+            memoria.init();
+            repository = new StorageEngineFunkoRepository(memoria);
+            categoria = categoriaMarvel();
+        }
+        minId = repository.save(nuevo(0)).getId();
+        for (int i = 1; i < rows; i++) {
+            repository.save(nuevo(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (logStore != null) {
+            logStore.close();
+            try (Stream<Path> files = Files.walk(logDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Funko> findById() {
+        return repository.findById(minId + ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Funko> findByIdConcurrent() {
+        return findById();
+    }
+
+    @Benchmark
+    public List<FunkoResponseDto> page() {
+        return repository.findResponsesAfter(minId + rows / 2, PageRequest.ofSize(500));
+    }
+
+    @Benchmark
+    public Funko save() {
+        return repository.save(nuevo(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Funko saveConcurrent() {
+        return save();
+    }
+
+    private static Categoria categoriaMarvel() {
+        Categoria marvel = new Categoria();
+        marvel.setId(1L);
+        marvel.setNombre("MARVEL");
+        return marvel;
+    }
+
+    private Funko nuevo(int i) {
+        return new Funko(null, "Funko " + i, 9.99 + (i % 100), categoria, LocalDate.of(2020, 1, 1), null, null);
+    }
+}
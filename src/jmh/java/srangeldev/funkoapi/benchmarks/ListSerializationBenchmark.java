@@ -0,0 +1,66 @@
+package srangeldev.funkoapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.mappers.FunkoMapper;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Escribir el listado de Funkos en JSON, con el ObjectMapper que construye Spring MVC:
+ *
+ * - list: como antes en el controlador, se mapea todo a DTOs, se recogen en una lista y se serializa.
+ * - stream: como ahora, el Stream de DTOs va directo al generador de Jackson y cada DTO se crea
+ *   justo antes de escribirlo (y queda libre al momento).
+ *
+ * La salida se descarta para medir sólo mapeo y serialización; el bytes/op (gc.alloc.rate.norm) lo da
+ * el perfil de memoria configurado en build.gradle.kts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListSerializationBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private final FunkoMapper mapper = new FunkoMapper();
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private ObjectMapper objectMapper;
+    private List<Funko> funkos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNombre("MARVEL");
+        funkos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime fecha = LocalDateTime.of(2024, 1, 1, 10, 0).plusMinutes(i);
+            funkos.add(new Funko((long) i, "Funko " + i, 9.99 + i, categoria, LocalDate.of(2020, 1, 1), fecha, fecha));
+        }
+    }
+
+    @Benchmark
+    public void list() throws IOException {
+        List<FunkoResponseDto> dtos = funkos.stream().map(mapper::toResponse).collect(Collectors.toList());
+        objectMapper.writeValue(out, dtos);
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        objectMapper.writeValue(out, funkos.stream().map(mapper::toResponse));
+    }
+}
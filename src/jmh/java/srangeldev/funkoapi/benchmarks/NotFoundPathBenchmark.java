@@ -0,0 +1,52 @@
+package srangeldev.funkoapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import srangeldev.funkoapi.exceptions.FunkoNotFoundException;
+import srangeldev.funkoapi.exceptions.ProblemResponses;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del camino 404: excepción + cuerpo de la respuesta.
+ *
+ * - legacy: excepción con traza de la pila (a cierta profundidad) y Map.of serializado con Jackson.
+ * - stackless: FunkoNotFoundException sin traza y cuerpo problem+json pre-renderizado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NotFoundPathBenchmark {
+
+    // Profundidad de pila aproximada de un handler de Spring MVC sobre Tomcat
+    private static final int STACK_DEPTH = 80;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long id = 0;
+
+    // Equivalente a la excepción anterior: RuntimeException normal, con fillInStackTrace
+    static class LegacyNotFoundException extends RuntimeException {
+        LegacyNotFoundException(Long id) {
+            super("Funko con id " + id + " no encontrado");
+        }
+    }
+
+    @Benchmark
+    public byte[] legacy() throws Exception {
+        RuntimeException ex = atDepth(STACK_DEPTH, () -> new LegacyNotFoundException(++id));
+        return objectMapper.writeValueAsBytes(Map.of("error", ex.getMessage()));
+    }
+
+    @Benchmark
+    public byte[] stackless() {
+        FunkoNotFoundException ex = atDepth(STACK_DEPTH, () -> new FunkoNotFoundException(++id));
+        ResponseEntity<byte[]> response = ProblemResponses.notFound(ex.getId());
+        return response.getBody();
+    }
+
+    private static <T> T atDepth(int depth, java.util.function.Supplier<T> supplier) {
+        return depth == 0 ? supplier.get() : atDepth(depth - 1, supplier);
+    }
+}
@@ -0,0 +1,86 @@
+package srangeldev.funkoapi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.funkoapi.FunkoApiApplication;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.mappers.FunkoMapper;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+import srangeldev.funkoapi.repositories.FunkoRepository;
+import srangeldev.funkoapi.services.FunkoService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de listar el catálogo (GET /funkos sin serializar) con la aplicación real sobre H2:
+ *
+ * - readWrite: entidades en una transacción normal; Hibernate guarda una copia de cada una y hace
+ *   el dirty checking de todas al confirmar.
+ * - readOnly: entidades en una transacción readOnly (FlushMode.MANUAL, entidades de sólo lectura).
+ * - keysetPages: lo que usa ahora el listado, FunkoService.streamAllResponses: páginas por keyset que
+ *   devuelven directamente FunkoResponseDto, cada una en su propia transacción readOnly.
+ *
+ * Lo interesante es el gc.alloc.rate.norm (bytes/op) del perfil de memoria configurado en build.gradle.kts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadPathBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private FunkoRepository repository;
+    private FunkoMapper mapper;
+    private FunkoService service;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FunkoApiApplication.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+        repository = context.getBean(FunkoRepository.class);
+        mapper = context.getBean(FunkoMapper.class);
+        service = context.getBean(FunkoService.class);
+        PlatformTransactionManager txManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+
+        Categoria categoria = repository.findAll().get(0).getCategoria();
+        List<Funko> funkos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            funkos.add(new Funko(null, "Funko " + i, 9.99 + i, categoria, LocalDate.of(2020, 1, 1), null, null));
+        }
+        repository.saveAll(funkos);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FunkoResponseDto> readWrite() {
+        return readWrite.execute(status -> repository.findAll().stream().map(mapper::toResponse).toList());
+    }
+
+    @Benchmark
+    public List<FunkoResponseDto> readOnly() {
+        return readOnly.execute(status -> repository.findAll().stream().map(mapper::toResponse).toList());
+    }
+
+    @Benchmark
+    public List<FunkoResponseDto> keysetPages() {
+        return service.streamAllResponses().toList();
+    }
+}
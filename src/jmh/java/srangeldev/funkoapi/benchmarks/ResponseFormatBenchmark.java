@@ -0,0 +1,74 @@
+package srangeldev.funkoapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación y decodificación de una página de FunkoResponseDto en JSON, CBOR y Smile,
+ * con los mismos ObjectMapper que construye Spring MVC para cada converter.
+ * encode() informa además del tamaño codificado de la página (columna "bytes" de los resultados).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<FunkoResponseDto> funkos;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNombre("MARVEL");
+        funkos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime fecha = LocalDateTime.of(2024, 1, 1, 10, 0).plusMinutes(i);
+            funkos.add(new FunkoResponseDto((long) i, "Funko " + i, 9.99 + i, categoria,
+                    LocalDate.of(2020, 1, 1).plusDays(i), fecha, fecha));
+        }
+        encoded = mapper.writeValueAsBytes(funkos);
+    }
+
+    // Contador auxiliar de JMH: se publica como un resultado más junto al tiempo de encode()
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] encode(Payload payload) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(funkos);
+        payload.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public FunkoResponseDto[] decode() throws Exception {
+        return mapper.readValue(encoded, FunkoResponseDto[].class);
+    }
+}
@@ -0,0 +1,112 @@
+package srangeldev.funkoapi.benchmarks;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Restore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tiempo hasta tener la BBDD lista con 1M de Funkos en cada forma de arrancar:
+ *
+ * - inMemoryReload: lo que hace create-drop + carga de datos en cada arranque (esquema + 1M de inserts).
+ * - persistentOpen: abrir la BBDD en fichero ya existente (perfil persistent) y contar las filas.
+ * - restoreFromBackup: restaurar el .zip de BACKUP TO sobre un directorio vacío y abrirla.
+ *
+ * Cada iteración es un arranque completo (SingleShotTime), con el esquema real de db/migration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class RestartBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    private Path workDir;
+    private Path backupZip;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("funko-restart");
+        // BBDD persistente de referencia, con sus filas y su copia de seguridad
+        String url = fileUrl(workDir.resolve("persistent"));
+        migrate(url);
+        try (Connection con = DriverManager.getConnection(url, "sa", "")) {
+            insertRows(con, rows);
+            backupZip = workDir.resolve("backup.zip");
+            try (Statement st = con.createStatement()) {
+                st.execute("BACKUP TO '" + backupZip + "'");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long inMemoryReload() throws Exception {
+        String url = "jdbc:h2:mem:reload" + (run++) + ";DB_CLOSE_DELAY=0";
+        try (Connection con = DriverManager.getConnection(url, "sa", "")) {
+            Flyway.configure().dataSource(url, "sa", "").load().migrate();
+            insertRows(con, rows);
+            return count(con);
+        }
+    }
+
+    @Benchmark
+    public long persistentOpen() throws Exception {
+        try (Connection con = DriverManager.getConnection(fileUrl(workDir.resolve("persistent")), "sa", "")) {
+            return count(con);
+        }
+    }
+
+    @Benchmark
+    public long restoreFromBackup() throws Exception {
+        Path dir = workDir.resolve("restore" + (run++));
+        Restore.execute(backupZip.toString(), dir.toString(), "funkos");
+        try (Connection con = DriverManager.getConnection(fileUrl(dir), "sa", "")) {
+            return count(con);
+        }
+    }
+
+    private static String fileUrl(Path dir) {
+        return "jdbc:h2:file:" + dir.resolve("funkos").toAbsolutePath() + ";CACHE_SIZE=131072;WRITE_DELAY=500";
+    }
+
+    private static void migrate(String url) {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+    }
+
+    private static void insertRows(Connection con, int rows) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("INSERT INTO funkos (nombre, precio, categoria_id, created_at, updated_at) "
+                    + "SELECT 'Funko ' || X, 9.99 + MOD(X, 100), 1 + MOD(X, 5), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP "
+                    + "FROM SYSTEM_RANGE(1, " + rows + ")");
+        }
+    }
+
+    private static long count(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM funkos")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
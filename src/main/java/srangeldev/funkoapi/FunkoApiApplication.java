@@ -3,9 +3,12 @@ package srangeldev.funkoapi;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Anotación para habilitar la caché de Spring
 @EnableCaching
+// Tareas periódicas (heartbeat del feed de cambios)
+@EnableScheduling
 @SpringBootApplication
 public class FunkoApiApplication {
 
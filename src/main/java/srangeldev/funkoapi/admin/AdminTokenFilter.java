@@ -0,0 +1,47 @@
+package srangeldev.funkoapi.admin;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import srangeldev.funkoapi.exceptions.ProblemResponses;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Protege los endpoints de administración (/admin/*): perfilado JFR, copias de seguridad y publicación
+ * del snapshot del catálogo.
+ *
+ * La petición debe traer la cabecera X-Admin-Token con el valor de funkoapi.admin.token. Si no hay token
+ * configurado se rechaza todo: un endpoint de administración nunca queda abierto por olvido.
+ * La comparación es en tiempo constante para no filtrar el token por tiempos de respuesta.
+ */
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_ADMIN_TOKEN = "X-Admin-Token";
+
+    // null si no hay token configurado
+    private final byte[] token;
+
+    public AdminTokenFilter(String token) {
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (autorizado(request.getHeader(HEADER_ADMIN_TOKEN))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ProblemResponses.write(response, ProblemResponses.unauthorized());
+    }
+
+    boolean autorizado(String presentado) {
+        return token != null && presentado != null
+                && MessageDigest.isEqual(token, presentado.getBytes(StandardCharsets.UTF_8));
+    }
+}
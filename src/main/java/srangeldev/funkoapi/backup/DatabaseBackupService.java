@@ -0,0 +1,124 @@
+package srangeldev.funkoapi.backup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Copias de seguridad en caliente de la BBDD H2 en fichero.
+ *
+ * Usa BACKUP TO de H2, que copia el MVStore a un .zip de forma consistente sin parar la aplicación
+ * (las escrituras siguen mientras tanto). Para restaurar un nodo basta con arrancarlo con
+ * funkoapi.backup.restore-from apuntando al .zip (ver DatabaseRestoreProcessor): no hay que
+ * recrear el esquema ni recargar los datos, sólo descomprimir el fichero.
+ *
+ * Para que el endpoint no pueda llenar el disco: entre dos copias tiene que pasar al menos min-interval
+ * (si no, no se hace ninguna) y sólo se guardan las últimas "keep" copias, borrando las más antiguas.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "funkoapi.backup", name = "enabled", havingValue = "true")
+public class DatabaseBackupService {
+
+    private static final DateTimeFormatter NOMBRE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final int keep;
+    private final long minIntervalNanos;
+
+    // Cuándo empezó la última copia (System.nanoTime); sólo se toca dentro de backup(), que es synchronized
+    private long ultimaCopia;
+    private boolean hayCopia;
+
+    public DatabaseBackupService(JdbcTemplate jdbcTemplate,
+                                 @Value("${funkoapi.backup.directory:./backups}") Path directory,
+                                 @Value("${funkoapi.backup.keep:7}") int keep,
+                                 @Value("${funkoapi.backup.min-interval:PT1M}") Duration minInterval) {
+        if (keep < 1) {
+            throw new IllegalArgumentException("funkoapi.backup.keep debe ser al menos 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = directory;
+        this.keep = keep;
+        this.minIntervalNanos = minInterval.toNanos();
+    }
+
+    /**
+     * Hace una copia de la BBDD y devuelve el fichero creado, o vacío si la anterior es de hace menos
+     * de min-interval. Después borra las copias que sobran por encima de keep.
+     */
+    public synchronized Optional<Path> backup() {
+        long ahora = System.nanoTime();
+        if (hayCopia && ahora - ultimaCopia < minIntervalNanos) {
+            log.warn("Copia de seguridad rechazada: la anterior es de hace menos de {} ms", minIntervalNanos / 1_000_000);
+            return Optional.empty();
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Path fichero = directory.resolve("funkos-" + LocalDateTime.now().format(NOMBRE) + ".zip").toAbsolutePath();
+        // El nombre lo generamos nosotros: no hay datos del cliente en la sentencia
+        jdbcTemplate.execute("BACKUP TO '" + fichero.toString().replace("'", "''") + "'");
+        ultimaCopia = ahora;
+        hayCopia = true;
+        log.info("Copia de seguridad creada en {}", fichero);
+        rotar();
+        return Optional.of(fichero);
+    }
+
+    /**
+     * Segundos que faltan para poder hacer otra copia (0 si ya se puede).
+     */
+    public synchronized long secondsUntilNext() {
+        if (!hayCopia) {
+            return 0;
+        }
+        long restante = minIntervalNanos - (System.nanoTime() - ultimaCopia);
+        return restante <= 0 ? 0 : Math.max(1, Duration.ofNanos(restante).toSeconds());
+    }
+
+    // Borra las copias más antiguas que sobran por encima de keep (list() va de la más reciente a la más antigua)
+    private void rotar() {
+        List<Path> copias = list();
+        for (Path antigua : copias.subList(Math.min(keep, copias.size()), copias.size())) {
+            try {
+                Files.deleteIfExists(antigua);
+                log.info("Copia de seguridad antigua borrada: {}", antigua);
+            } catch (IOException e) {
+                log.warn("No se ha podido borrar la copia antigua {}", antigua, e);
+            }
+        }
+    }
+
+    /**
+     * Copias disponibles, de la más reciente a la más antigua.
+     */
+    public List<Path> list() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> ficheros = Files.list(directory)) {
+            return ficheros.filter(p -> p.getFileName().toString().endsWith(".zip"))
+                    .sorted((a, b) -> b.getFileName().compareTo(a.getFileName()))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
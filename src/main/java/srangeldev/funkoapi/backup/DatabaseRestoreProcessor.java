@@ -0,0 +1,90 @@
+package srangeldev.funkoapi.backup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.tools.Restore;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Restaura la BBDD desde una copia (funkoapi.backup.restore-from) antes de que se abra.
+ *
+ * Corre como BeanFactoryPostProcessor, es decir, antes de crear ningún bean normal (y por tanto antes
+ * del DataSource, Flyway o Hibernate). La restauración es descomprimir el .zip sobre el directorio de la
+ * BBDD, así que el nodo queda en el estado exacto de la copia en lo que tarda en copiar el fichero.
+ *
+ * Se restaura una sola vez por copia: al terminar se deja en el directorio de la BBDD un fichero marca
+ * (RESTORED_MARKER) con la copia restaurada, y si en el siguiente arranque restore-from sigue apuntando
+ * a esa misma copia no se vuelve a restaurar (se perderían los datos escritos desde entonces).
+ * Para repetirla se borra la marca o se apunta a otra copia.
+ */
+@Slf4j
+public class DatabaseRestoreProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    static final String RESTORED_MARKER = ".restored-from";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        String backup = environment.getProperty("funkoapi.backup.restore-from", "");
+        if (backup.isBlank()) {
+            return;
+        }
+        Path zip = Path.of(backup);
+        if (!Files.isRegularFile(zip)) {
+            throw new IllegalStateException("No existe la copia de seguridad " + zip.toAbsolutePath());
+        }
+        String directory = environment.getProperty("funkoapi.backup.database-directory", "./data");
+        String database = environment.getProperty("funkoapi.backup.database-name", "funkos");
+        Path marca = Path.of(directory).resolve(RESTORED_MARKER);
+        String copia = identificar(zip);
+        if (copia.equals(leer(marca))) {
+            log.info("La copia {} ya se restauró en un arranque anterior, no se vuelve a restaurar", zip.toAbsolutePath());
+            return;
+        }
+        long inicio = System.nanoTime();
+        // Sobrescribe los ficheros de la BBDD que hubiera en el directorio
+        Restore.execute(zip.toString(), directory, database);
+        escribir(marca, copia);
+        log.info("BBDD {} restaurada desde {} en {} ms", database, zip.toAbsolutePath(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Ruta, tamaño y fecha de la copia: otra copia en la misma ruta cuenta como distinta
+    private static String identificar(Path zip) {
+        try {
+            return zip.toAbsolutePath().normalize() + "|" + Files.size(zip) + "|" + Files.getLastModifiedTime(zip).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String leer(Path marca) {
+        try {
+            return Files.isRegularFile(marca) ? Files.readString(marca).strip() : "";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escribir(Path marca, String copia) {
+        try {
+            Files.createDirectories(marca.getParent());
+            Files.writeString(marca, copia);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package srangeldev.funkoapi.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mensaje del bus de invalidación: "el nodo X ha cambiado la clave K de la caché C".
+ *
+ * Las claves de nuestras cachés son ids (Long); también se admiten String. Una clave null
+ * significa que hay que vaciar la caché entera.
+ *
+ * @param nodeId nodo que originó el cambio (para ignorar los mensajes propios)
+ * @param cache  nombre de la caché
+ * @param key    clave invalidada, o null para vaciar la caché
+ */
+public record CacheInvalidation(String nodeId, String cache, Object key) {
+
+    private static final char SEPARATOR = '|';
+
+    // Formato compacto en texto: nodo|caché|tipo|clave (tipo L=Long, S=String, *=todo)
+    public byte[] encode() {
+        String type;
+        String value;
+        if (key == null) {
+            type = "*";
+            value = "";
+        } else if (key instanceof Long id) {
+            type = "L";
+            value = id.toString();
+        } else {
+            type = "S";
+            value = key.toString();
+        }
+        return (nodeId + SEPARATOR + cache + SEPARATOR + type + SEPARATOR + value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static CacheInvalidation decode(byte[] data, int offset, int length) {
+        String text = new String(data, offset, length, StandardCharsets.UTF_8);
+        String[] parts = text.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Mensaje de invalidación mal formado: " + text);
+        }
+        Object key = switch (parts[2]) {
+            case "*" -> null;
+            case "L" -> Long.valueOf(parts[3]);
+            default -> parts[3];
+        };
+        return new CacheInvalidation(parts[0], parts[1], key);
+    }
+}
@@ -0,0 +1,55 @@
+package srangeldev.funkoapi.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus de invalidación de las cachés locales (near-cache) entre réplicas.
+ *
+ * Cada escritura en una caché de este nodo se publica como invalidación; los demás nodos
+ * desalojan esa clave y la vuelven a leer de la BBDD cuando se pida.
+ */
+public class CacheInvalidationBus implements AutoCloseable {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationTransport transport;
+    private final List<Consumer<CacheInvalidation>> remoteListeners = new CopyOnWriteArrayList<>();
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport) {
+        this.transport = transport;
+        transport.subscribe(this::onMessage);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean reachesOtherNodes() {
+        return transport.reachesOtherNodes();
+    }
+
+    public void publish(String cache, Object key) {
+        transport.publish(new CacheInvalidation(nodeId, cache, key));
+    }
+
+    // Se avisa sólo de las invalidaciones que vienen de otros nodos
+    public void onRemoteInvalidation(Consumer<CacheInvalidation> listener) {
+        remoteListeners.add(listener);
+    }
+
+    private void onMessage(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.nodeId())) {
+            return;
+        }
+        for (Consumer<CacheInvalidation> listener : remoteListeners) {
+            listener.accept(invalidation);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        transport.close();
+    }
+}
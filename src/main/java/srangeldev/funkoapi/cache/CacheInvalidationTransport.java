@@ -0,0 +1,26 @@
+package srangeldev.funkoapi.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transporte del bus de invalidación de cachés entre nodos.
+ *
+ * Implementaciones: {@link LocalInvalidationTransport} (mismo proceso, para desarrollo y tests)
+ * y {@link MulticastInvalidationTransport} (UDP multicast en la red local).
+ */
+public interface CacheInvalidationTransport extends AutoCloseable {
+
+    void publish(CacheInvalidation invalidation);
+
+    // Recibe todos los mensajes publicados (también los propios: el bus los filtra)
+    void subscribe(Consumer<CacheInvalidation> listener);
+
+    // true si comunica nodos distintos, es decir, si puede haber escrituras que este nodo no ve
+    default boolean reachesOtherNodes() {
+        return false;
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,112 @@
+package srangeldev.funkoapi.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import srangeldev.funkoapi.repositories.FunkoStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtro de Bloom con los ids de Funkos existentes, consultado antes que el repositorio.
+ *
+ * Se construye al arrancar con todos los ids de la BBDD, se actualiza con cada alta y se reconstruye
+ * cada funkoapi.cache.bloom.rebuild-interval. Los borrados no se pueden quitar de un filtro de Bloom:
+ * esos ids quedan como falsos positivos (que acaban en la caché negativa) hasta el siguiente {@link #rebuild()}.
+ *
+ * Un negativo sólo es seguro si todas las altas pasan por este nodo. Si el bus comunica varios nodos,
+ * un alta de otro nodo sólo llega con su invalidación, que puede perderse (UDP) o llegar después que
+ * una lectura. Por eso, en ese caso, mightExist no descarta nada: el servicio lo consulta en el primario
+ * y sólo entonces lo apunta en la caché negativa.
+ *
+ * Mientras se reconstruye, las altas se apuntan también en una lista y se aplican al filtro nuevo
+ * justo al sustituir el antiguo (con el mismo cerrojo), así que ninguna se pierde en el cambio.
+ */
+@Slf4j
+@Component
+public class ExistingFunkoIds {
+
+    private final FunkoStore repository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    // Hay escrituras en otros nodos: los negativos del filtro no bastan para dar un 404
+    private final boolean escriturasRemotas;
+
+    // null hasta el primer rebuild: mientras tanto cualquier id "podría existir"
+    private volatile LongBloomFilter filter;
+    // Altas llegadas durante un rebuild (null si no hay ninguno en curso); protegido por "cambio"
+    private List<Long> pendientes;
+    private final Object cambio = new Object();
+
+    public ExistingFunkoIds(FunkoStore repository, CacheInvalidationBus invalidationBus,
+                            @Value("${funkoapi.cache.bloom.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${funkoapi.cache.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.escriturasRemotas = invalidationBus.reachesOtherNodes();
+        // Un id cambiado en otra réplica puede ser un alta que este nodo aún no conoce
+        invalidationBus.onRemoteInvalidation(invalidation -> {
+            if (invalidation.key() instanceof Long id) {
+                add(id);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${funkoapi.cache.bloom.rebuild-interval:PT10M}",
+            initialDelayString = "${funkoapi.cache.bloom.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        synchronized (cambio) {
+            pendientes = new ArrayList<>();
+        }
+        // Dejamos margen (x2) para las altas que vengan después del arranque
+        long size = Math.max(expectedInsertions, repository.count() * 2);
+        LongBloomFilter nuevo = new LongBloomFilter(size, falsePositiveRate);
+        repository.findAllIds().forEach(nuevo::put);
+        synchronized (cambio) {
+            pendientes.forEach(nuevo::put);
+            filter = nuevo;
+            pendientes = null;
+        }
+        log.info("Filtro de ids existentes reconstruido ({} bits, {} hashes)", nuevo.getNumBits(), nuevo.getNumHashes());
+    }
+
+    public boolean mightExist(Long id) {
+        LongBloomFilter actual = filter;
+        return escriturasRemotas || actual == null || actual.mightContain(id);
+    }
+
+    public void add(Long id) {
+        anotar(id);
+        // Un alta aún sin confirmar no sale en la consulta de un rebuild que empiece antes del commit:
+        // se vuelve a anotar al confirmar para que llegue también al filtro nuevo
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    anotar(id);
+                }
+            });
+        }
+    }
+
+    private void anotar(Long id) {
+        LongBloomFilter actual;
+        synchronized (cambio) {
+            actual = filter;
+            if (pendientes != null) {
+                pendientes.add(id);
+            }
+        }
+        if (actual != null) {
+            actual.put(id);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package srangeldev.funkoapi.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import srangeldev.funkoapi.jfr.FunkoCacheEvent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Decorador de {@link Cache} que envuelve cada lectura en una Observation ("funko.cache.get"),
+ * de forma que la búsqueda en caché aparece como span propio (y como timer) en cada traza.
+ * Además emite un evento JFR {@link FunkoCacheEvent} con el acierto/fallo de cada lectura.
+ *
+ * Las lecturas con carga ({@code get(key, loader)}, como FunkoServiceImpl.getById) pasan por {@link SingleFlight}: si muchas
+ * peticiones fallan a la vez para la misma clave, sólo una consulta la BBDD. Las métricas
+ * "funko.cache.loads" (result=loaded|deduplicated) cuentan cuántas cargas se han ahorrado. La caché
+ * se consulta una sola vez por lectura, así que cache.gets cuenta un acierto o un fallo por petición.
+ *
+ * Las escrituras (put, evict, clear) se publican en el {@link CacheInvalidationBus} para que el resto
+ * de réplicas desalojen su copia. Rellenar la caché tras una lectura (carga o putIfAbsent) no es un
+ * cambio del dato, así que no se publica.
+ *
+ * Dentro de una transacción las escrituras se aplican y se publican al confirmar (afterCommit): si se
+ * avisara antes, otra réplica podría releer de la BBDD el valor antiguo y guardarlo de nuevo, y un
+ * rollback dejaría en caché un valor que nunca existió. evictIfPresent e invalidate desalojan ya
+ * (tienen que devolver si había algo) y repiten el desalojo al confirmar.
+ *
+ * Una carga que se cruza con una escritura no debe dejar en caché el valor que leyó antes de ella:
+ * se guarda con putIfAbsent (nunca pisa el put del afterCommit) y se retira si mientras tanto llegó una
+ * invalidación de esa clave, local o remota. Para saberlo cada clave cae en una de FRANJAS versiones
+ * que cada escritura incrementa antes de tocar la caché; comparten versión unas pocas claves, y como
+ * mucho se pierde alguna carga de más.
+ */
+public class InstrumentedCache implements Cache {
+
+    private final Cache delegate;
+    private final ObservationRegistry observationRegistry;
+    private final CacheInvalidationBus invalidationBus;
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private static final int FRANJAS = 64;
+    private final AtomicLongArray versiones = new AtomicLongArray(FRANJAS);
+    // clear() cambia la versión de todas las claves a la vez
+    private final AtomicLong vaciados = new AtomicLong();
+
+    public InstrumentedCache(Cache delegate, ObservationRegistry observationRegistry, MeterRegistry meterRegistry,
+                             CacheInvalidationBus invalidationBus) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+        this.invalidationBus = invalidationBus;
+        FunctionCounter.builder("funko.cache.loads", singleFlight, SingleFlight::getLoads)
+                .tag("cache", delegate.getName()).tag("result", "loaded")
+                .register(meterRegistry);
+        FunctionCounter.builder("funko.cache.loads", singleFlight, SingleFlight::getDeduplicated)
+                .tag("cache", delegate.getName()).tag("result", "deduplicated")
+                .register(meterRegistry);
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = observe("get", () -> delegate.get(key));
+        registrarLectura(key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = observe("get", () -> delegate.get(key, type));
+        registrarLectura(key, value != null);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return observe("load", () -> {
+            ValueWrapper cached = delegate.get(key);
+            registrarLectura(key, cached != null);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            try {
+                return singleFlight.load(key, () -> {
+                    long version = version(key);
+                    T value = valueLoader.call();
+                    // Un valor inexistente no se guarda: de los ids que no existen se encarga NegativeLookupCache
+                    if (value == null) {
+                        return null;
+                    }
+                    guardarSiNoEsta(key, value);
+                    // Se comprueba después de guardar: una escritura posterior a esta comprobación ya lo pisa o lo desaloja
+                    if (version(key) != version) {
+                        retirar(key, value);
+                    }
+                    return value;
+                });
+            } catch (ValueRetrievalException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        alConfirmar(() -> {
+            cambiar(key);
+            delegate.put(key, value);
+            invalidationBus.publish(getName(), key);
+        });
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        alConfirmar(() -> {
+            cambiar(key);
+            delegate.evict(key);
+            invalidationBus.publish(getName(), key);
+        });
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        cambiar(key);
+        boolean present = delegate.evictIfPresent(key);
+        alConfirmar(() -> {
+            cambiar(key);
+            delegate.evict(key);
+            invalidationBus.publish(getName(), key);
+        });
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        alConfirmar(() -> {
+            vaciados.incrementAndGet();
+            delegate.clear();
+            invalidationBus.publish(getName(), null);
+        });
+    }
+
+    @Override
+    public boolean invalidate() {
+        vaciados.incrementAndGet();
+        boolean present = delegate.invalidate();
+        alConfirmar(() -> {
+            vaciados.incrementAndGet();
+            delegate.clear();
+            invalidationBus.publish(getName(), null);
+        });
+        return present;
+    }
+
+    // Invalidación que llega de otro nodo: se aplica sobre la caché real sin volver a publicarla
+    void applyRemote(Object key) {
+        if (key == null) {
+            vaciados.incrementAndGet();
+            delegate.clear();
+        } else {
+            cambiar(key);
+            delegate.evict(key);
+        }
+    }
+
+    private void cambiar(Object key) {
+        versiones.incrementAndGet(franja(key));
+    }
+
+    // Las dos sólo crecen, así que la suma cambia si cambia cualquiera
+    private long version(Object key) {
+        return versiones.get(franja(key)) + vaciados.get();
+    }
+
+    private static int franja(Object key) {
+        return Math.floorMod(key.hashCode(), FRANJAS);
+    }
+
+    // En Caffeine, sobre el mapa nativo: el putIfAbsent de Spring pasa por get y contaría otro fallo
+    private void guardarSiNoEsta(Object key, Object value) {
+        if (delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            mapa(caffeine).putIfAbsent(key, value);
+        } else {
+            delegate.putIfAbsent(key, value);
+        }
+    }
+
+    // Quita la carga descartada sin llevarse el valor que haya guardado la escritura (en Caffeine se puede comparar)
+    private void retirar(Object key, Object value) {
+        if (delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            mapa(caffeine).remove(key, value);
+        } else {
+            delegate.evict(key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> mapa(com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).asMap();
+    }
+
+    // Sin transacción en curso la escritura se aplica ya; con ella, sólo si confirma
+    private static void alConfirmar(Runnable escritura) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            escritura.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                escritura.run();
+            }
+        });
+    }
+
+    private void registrarLectura(Object key, boolean hit) {
+        FunkoCacheEvent event = new FunkoCacheEvent();
+        if (event.shouldCommit()) {
+            event.cache = getName();
+            event.key = String.valueOf(key);
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    private <T> T observe(String operation, Supplier<T> call) {
+        return Observation.createNotStarted("funko.cache.get", observationRegistry)
+                .contextualName("cache " + operation + " " + getName())
+                .lowCardinalityKeyValue("cache", getName())
+                .lowCardinalityKeyValue("operation", operation)
+                .observe(call);
+    }
+}
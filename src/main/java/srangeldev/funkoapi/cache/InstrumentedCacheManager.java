@@ -0,0 +1,70 @@
+package srangeldev.funkoapi.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CacheManager que decora las cachés de otro CacheManager con {@link InstrumentedCache}.
+ *
+ * También aplica las invalidaciones que llegan de otros nodos por el {@link CacheInvalidationBus},
+ * directamente sobre la caché real (sin volver a publicarlas).
+ */
+public class InstrumentedCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus invalidationBus;
+    private final Map<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+
+    public InstrumentedCacheManager(CacheManager delegate, ObservationRegistry observationRegistry,
+                                    MeterRegistry meterRegistry, CacheInvalidationBus invalidationBus) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.onRemoteInvalidation(this::applyRemote);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InstrumentedCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new InstrumentedCache(target, observationRegistry, meterRegistry, invalidationBus));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private void applyRemote(CacheInvalidation invalidation) {
+        // Por el decorador si ya existe, para que descarte las cargas en curso de esa clave
+        InstrumentedCache cache = caches.get(invalidation.cache());
+        if (cache != null) {
+            cache.applyRemote(invalidation.key());
+            return;
+        }
+        Cache target = delegate.getCache(invalidation.cache());
+        if (target == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            target.clear();
+        } else {
+            target.evict(invalidation.key());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package srangeldev.funkoapi.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte en memoria: reparte los mensajes entre todos los suscriptores del mismo proceso.
+ * Sirve para un único nodo y para simular varios nodos (varios contextos de Spring) en los tests.
+ */
+public class LocalInvalidationTransport implements CacheInvalidationTransport {
+
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            listener.accept(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+}
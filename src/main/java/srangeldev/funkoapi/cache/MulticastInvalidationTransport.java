@@ -0,0 +1,87 @@
+package srangeldev.funkoapi.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte por UDP multicast: cada invalidación es un datagrama al grupo, sin broker intermedio.
+ *
+ * UDP no garantiza la entrega. Si se pierde un mensaje, la caducidad de las entradas de la caché
+ * (expireAfterWrite) acota cuánto dura un dato obsoleto. No hay ninguna garantía para el filtro de
+ * Bloom de ExistingFunkoIds, así que con este transporte ese filtro no se usa para dar 404: sus
+ * negativos se confirman en el primario.
+ */
+@Slf4j
+public class MulticastInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int MAX_PACKET = 1024;
+
+    private final InetSocketAddress group;
+    private final MulticastSocket socket;
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+
+    public MulticastInvalidationTransport(String groupAddress, int port, int ttl) throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+        this.socket = new MulticastSocket(port);
+        this.socket.setTimeToLive(ttl);
+        this.socket.joinGroup(group, null);
+        this.receiver = Thread.ofPlatform().daemon().name("cache-invalidation-receiver").start(this::receiveLoop);
+        log.info("Bus de invalidación multicast escuchando en {}", group);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        byte[] data = invalidation.encode();
+        try {
+            socket.send(new DatagramPacket(data, data.length, group));
+        } catch (IOException e) {
+            // No debe romper la petición que originó el cambio
+            log.warn("No se pudo enviar la invalidación {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean reachesOtherNodes() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        receiver.interrupt();
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_PACKET];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                CacheInvalidation invalidation = CacheInvalidation.decode(packet.getData(), packet.getOffset(), packet.getLength());
+                for (Consumer<CacheInvalidation> listener : listeners) {
+                    listener.accept(invalidation);
+                }
+            } catch (SocketException e) {
+                // Socket cerrado: fin del bucle
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Mensaje de invalidación descartado: {}", e.getMessage());
+            }
+        }
+    }
+}
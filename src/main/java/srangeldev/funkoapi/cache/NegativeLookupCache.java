@@ -0,0 +1,47 @@
+package srangeldev.funkoapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caché negativa acotada: recuerda durante un tiempo los ids que no existen en la BBDD,
+ * para que repetir un id inexistente no vuelva a consultar el repositorio.
+ *
+ * Quien cree un Funko debe llamar a {@link #forget(Long)} con su id; las altas de otras réplicas
+ * llegan por el {@link CacheInvalidationBus}.
+ */
+@Component
+public class NegativeLookupCache {
+
+    private final Cache<Long, Boolean> missing;
+
+    public NegativeLookupCache(CacheInvalidationBus invalidationBus,
+                               @Value("${funkoapi.cache.negative.max-size:100000}") long maxSize,
+                               @Value("${funkoapi.cache.negative.ttl:PT5M}") Duration ttl) {
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        invalidationBus.onRemoteInvalidation(invalidation -> {
+            if (invalidation.key() instanceof Long id) {
+                forget(id);
+            }
+        });
+    }
+
+    public boolean isKnownMissing(Long id) {
+        return missing.getIfPresent(id) != null;
+    }
+
+    public void markMissing(Long id) {
+        missing.put(id, Boolean.TRUE);
+    }
+
+    public void forget(Long id) {
+        missing.invalidate(id);
+    }
+}
@@ -0,0 +1,61 @@
+package srangeldev.funkoapi.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carga "single-flight": si varios hilos piden a la vez la misma clave, sólo el primero
+ * ejecuta la carga y el resto espera y comparte su resultado (o su excepción).
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(Object key, Callable<T> loader) throws Exception {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            deduplicated.increment();
+            return (T) await(existing);
+        }
+        try {
+            loads.increment();
+            T value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Cargas ejecutadas realmente
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    // Peticiones que se ahorraron la carga esperando a otra en curso
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        }
+    }
+}
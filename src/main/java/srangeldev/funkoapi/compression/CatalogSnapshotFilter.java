@@ -0,0 +1,312 @@
+package srangeldev.funkoapi.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import srangeldev.funkoapi.routing.DataSourceRoute;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sirve el catálogo completo (GET /funkos en JSON) desde una instantánea ya renderizada y ya comprimida.
+ *
+ * La instantánea se identifica por la versión del catálogo (los cambios confirmados en la outbox
+ * compartida, ver CatalogVersion): mientras no cambie, las peticiones no llegan al controlador y el coste
+ * de serializar y comprimir se paga una vez por versión en lugar de una vez por petición. Además caduca
+ * pasado un tiempo (ttl), como red de seguridad para cambios que no pasen por el feed. Se guardan los bytes en claro y en
+ * gzip, y se envía una u otra según Accept-Encoding. Las respuestas que no pasan por aquí las comprime
+ * Tomcat (server.compression.*).
+ *
+ * En un fallo la respuesta no se retiene: el listado se sigue enviando al cliente según se genera, página
+ * a página (lo comprime Tomcat), y a la vez se copia para la instantánea. La copia cuesta unos 200 bytes
+ * por Funko en JSON (100.000 Funkos, unos 20 MB en claro); si pasa de maxSize se descarta y esa versión
+ * no deja instantánea, así que un catálogo más grande se sirve siempre en streaming, como sin el filtro.
+ * Las páginas se leen en transacciones distintas: una instantánea puede mezclar filas de antes y de
+ * después de una escritura concurrente, pero esa escritura sube la versión y la siguiente petición la
+ * regenera.
+ */
+public class CatalogSnapshotFilter extends OncePerRequestFilter {
+
+    record Snapshot(long version, long creadaEn, byte[] body, byte[] gzip) {
+    }
+
+    // Formatos que sabe servir la API para el catálogo, en el orden de los converters (JSON primero)
+    private static final List<MediaType> FORMATOS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.valueOf("application/cbor"), MediaType.valueOf("application/x-jackson-smile"));
+
+    // La respuesta depende del formato pedido (sólo JSON pasa por aquí) y de si se acepta gzip
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private final LongSupplier catalogVersion;
+    private final int minGzipSize;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter tooLarge;
+
+    public CatalogSnapshotFilter(LongSupplier catalogVersion, int minGzipSize, Duration ttl, int maxSize,
+                                 MeterRegistry registry) {
+        this.catalogVersion = catalogVersion;
+        this.minGzipSize = minGzipSize;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("funko.catalog.snapshot").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("funko.catalog.snapshot").tag("result", "miss").register(registry);
+        this.tooLarge = Counter.builder("funko.catalog.snapshot").tag("result", "too-large").register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Sólo la lista completa en JSON: sin parámetros (?ids=...) y sin pedir CBOR/Smile
+        return !"GET".equals(request.getMethod()) || request.getQueryString() != null || !aceptaJson(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // La versión se lee antes de consultar: la instantánea puede ser más nueva que su versión, nunca más vieja
+        long version = catalogVersion.getAsLong();
+        long ahora = System.nanoTime();
+        Snapshot actual = snapshot.get();
+        if (actual != null && actual.version() == version && ahora - actual.creadaEn() < ttlNanos) {
+            hits.increment();
+            escribir(request, response, actual);
+            return;
+        }
+
+        // La instantánea se sirve a todos: se genera leyendo del primario, no de una réplica retrasada
+        // (quedaría más vieja que su versión, que sale del primario)
+        response.setHeader(HttpHeaders.VARY, VARY);
+        CopiaResponse copia = new CopiaResponse(response, maxSize);
+        boolean forzado = DataSourceRoute.isPrimaryForced();
+        DataSourceRoute.forcePrimary();
+        try {
+            chain.doFilter(request, copia);
+            copia.flushBuffer();
+        } finally {
+            if (!forzado) {
+                DataSourceRoute.clear();
+            }
+        }
+        if (copia.getStatus() != HttpServletResponse.SC_OK || !esJson(copia.getContentType())) {
+            return;
+        }
+        misses.increment();
+        byte[] body = copia.bytes();
+        if (body == null) {
+            tooLarge.increment();
+            return;
+        }
+        Snapshot nueva = new Snapshot(version, ahora, body, body.length >= minGzipSize ? gzip(body) : null);
+        // Si otra petición ha guardado una versión posterior (o la misma más reciente) mientras tanto, se queda la suya
+        snapshot.accumulateAndGet(nueva, (a, b) -> a != null && (a.version() > b.version()
+                || a.version() == b.version() && a.creadaEn() - b.creadaEn() > 0) ? a : b);
+    }
+
+    private void escribir(HttpServletRequest request, HttpServletResponse response, Snapshot snapshot)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, VARY);
+        byte[] bytes = snapshot.body();
+        if (snapshot.gzip() != null && aceptaGzip(request)) {
+            // Con Content-Encoding ya puesto, Tomcat no vuelve a comprimir
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            bytes = snapshot.gzip();
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    // JSON tiene que ser el formato preferido, no sólo aparecer en Accept: "application/cbor, application/json;q=0.1"
+    // pide CBOR. Como en la negociación de Spring MVC, gana la mayor q; a igual q, el rango más específico y
+    // después el que va antes en la cabecera. Un Accept que no se puede leer se deja al controlador (su 400/406)
+    static boolean aceptaJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> pedidos;
+        try {
+            pedidos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        Preferencia json = preferencia(pedidos, MediaType.APPLICATION_JSON);
+        if (json == null) {
+            return false;
+        }
+        for (MediaType formato : FORMATOS.subList(1, FORMATOS.size())) {
+            Preferencia otro = preferencia(pedidos, formato);
+            if (otro != null && otro.antesQue(json)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    record Preferencia(double q, int especificidad, int posicion) {
+
+        boolean antesQue(Preferencia otra) {
+            if (q != otra.q) {
+                return q > otra.q;
+            }
+            if (especificidad != otra.especificidad) {
+                return especificidad > otra.especificidad;
+            }
+            return posicion < otra.posicion;
+        }
+    }
+
+    // Lo que dice Accept de un formato: su rango más específico (el que manda), o null si no se acepta (o q=0)
+    private static Preferencia preferencia(List<MediaType> pedidos, MediaType formato) {
+        Preferencia mejor = null;
+        for (int i = 0; i < pedidos.size(); i++) {
+            MediaType pedido = pedidos.get(i);
+            if (!pedido.includes(formato)) {
+                continue;
+            }
+            int especificidad = pedido.isWildcardType() ? 0 : pedido.isWildcardSubtype() ? 1 : 2;
+            if (mejor == null || especificidad > mejor.especificidad()) {
+                mejor = new Preferencia(pedido.getQualityValue(), especificidad, i);
+            }
+        }
+        return mejor != null && mejor.q() > 0 ? mejor : null;
+    }
+
+    private static boolean esJson(String contentType) {
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    // gzip en Accept-Encoding, salvo que venga expresamente con q=0
+    static boolean aceptaGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length < 2 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Respuesta que escribe al cliente según llega y guarda a la vez una copia de los bytes, hasta maxSize.
+     */
+    static final class CopiaResponse extends HttpServletResponseWrapper {
+
+        private final int maxSize;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream(8192);
+        private ServletOutputStream out;
+        private PrintWriter writer;
+
+        CopiaResponse(HttpServletResponse response, int maxSize) {
+            super(response);
+            this.maxSize = maxSize;
+        }
+
+        // La copia, o null si se ha pasado de maxSize
+        byte[] bytes() {
+            return copia != null ? copia.toByteArray() : null;
+        }
+
+        private void copiar(byte[] b, int off, int len) {
+            if (copia == null) {
+                return;
+            }
+            if (copia.size() + len > maxSize) {
+                copia = null;
+                return;
+            }
+            copia.write(b, off, len);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) {
+                ServletOutputStream destino = super.getOutputStream();
+                out = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        destino.write(b);
+                        copiar(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        destino.write(b, off, len);
+                        copiar(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        destino.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return destino.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        destino.setWriteListener(listener);
+                    }
+                };
+            }
+            return out;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (out != null) {
+                out.flush();
+            }
+            super.flushBuffer();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,69 @@
+package srangeldev.funkoapi.compression;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Versión del catálogo para {@link CatalogSnapshotFilter}: el número de cambios confirmados en la tabla
+ * outbox del feed. La tabla es compartida, así que la versión cambia también con las escrituras de otros
+ * nodos. Es un recuento y no la mayor secuencia: con varios nodos una secuencia menor puede confirmarse
+ * después que una mayor, y el máximo no cambiaría.
+ *
+ * Para no consultar la BBDD en cada GET, el recuento compartido se relee como mucho una vez por intervalo
+ * (sólo un hilo a la vez; el resto usa la última lectura). Entre medias se le suman los cambios que este
+ * nodo ha confirmado desde esa lectura: los cambios de este nodo se ven al momento y los de otros nodos
+ * con, como mucho, un intervalo de retraso. La versión nunca baja.
+ */
+@Slf4j
+public class CatalogVersion implements LongSupplier {
+
+    // Recuento compartido (base) y cambios locales que ya incluía
+    private record Lectura(long base, long locales) {
+    }
+
+    private final LongSupplier compartida;
+    private final LongSupplier local;
+    private final long intervaloNanos;
+    private final AtomicBoolean consultando = new AtomicBoolean();
+    private volatile Lectura lectura;
+    private volatile long leidaEn;
+
+    /**
+     * @param compartida cambios confirmados en la outbox por todos los nodos
+     * @param local      cambios confirmados por este nodo desde que arrancó (sólo crece)
+     */
+    public CatalogVersion(LongSupplier compartida, LongSupplier local, Duration intervalo) {
+        this.compartida = compartida;
+        this.local = local;
+        this.intervaloNanos = intervalo.toNanos();
+        this.lectura = new Lectura(0, local.getAsLong());
+        // La primera petición ya consulta la BBDD
+        this.leidaEn = System.nanoTime() - intervaloNanos;
+    }
+
+    @Override
+    public long getAsLong() {
+        long ahora = System.nanoTime();
+        if (ahora - leidaEn >= intervaloNanos && consultando.compareAndSet(false, true)) {
+            try {
+                long total = compartida.getAsLong();
+                // Los locales se leen después: un commit entre medias se cuenta en la siguiente lectura,
+                // nunca dos veces
+                long locales = local.getAsLong();
+                Lectura anterior = lectura;
+                lectura = new Lectura(Math.max(total, anterior.base() + locales - anterior.locales()), locales);
+                leidaEn = ahora;
+            } catch (RuntimeException e) {
+                // Sin BBDD se sigue con la última lectura y los locales; se reintentará en la siguiente petición
+                log.debug("No se pudo leer la versión compartida del catálogo: {}", e.getMessage());
+            } finally {
+                consultando.set(false);
+            }
+        }
+        Lectura actual = lectura;
+        return actual.base() + local.getAsLong() - actual.locales();
+    }
+}
@@ -0,0 +1,77 @@
+package srangeldev.funkoapi.concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite adaptativo de peticiones simultáneas (AIMD: subida aditiva, bajada multiplicativa).
+ *
+ * - Cada petición que termina por debajo de la latencia objetivo, con el límite en uso, sube el límite
+ *   en 1/límite (≈ +1 por cada "ventana" completa de peticiones).
+ * - Una petición lenta o fallida lo multiplica por backoff (p. ej. 0.9).
+ *
+ * Así, cuando la BBDD o el pool se ralentizan, el límite baja hasta lo que el sistema aguanta y el resto
+ * se rechaza enseguida, en vez de acumular hilos esperando. Las escrituras sólo pueden ocupar una
+ * fracción del límite: con el sistema saturado se rechazan antes que las lecturas.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+    private final long latencyTargetNanos;
+    private final double writeRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoff,
+                                  Duration latencyTarget, double writeRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoff = backoff;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.writeRatio = writeRatio;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Intenta ocupar un hueco. Si devuelve true hay que llamar después a {@link #release}.
+     */
+    public boolean tryAcquire(boolean write) {
+        int max = write ? Math.max(1, (int) (limit * writeRatio)) : (int) limit;
+        while (true) {
+            int actual = inFlight.get();
+            if (actual >= max) {
+                return false;
+            }
+            if (inFlight.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco y ajusta el límite con la latencia observada.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int enCurso = inFlight.getAndDecrement();
+        synchronized (this) {
+            double actual = limit;
+            if (failed || latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, actual * backoff);
+            } else if (enCurso * 2 >= actual) {
+                // Sólo subimos si el límite se está usando: con poco tráfico no sabemos si aguantaría más
+                limit = Math.min(maxLimit, actual + 1.0 / actual);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,120 @@
+package srangeldev.funkoapi.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import srangeldev.funkoapi.exceptions.ProblemResponses;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Protección frente a sobrecarga del API de Funkos: si no hay hueco en el {@link AimdConcurrencyLimiter}
+ * se responde 503 al momento (con Retry-After) en lugar de dejar el hilo de Tomcat esperando a la BBDD.
+ *
+ * La latencia que ajusta el límite es el tiempo de servicio: desde que entra la petición hasta que se
+ * empieza a escribir la respuesta. Lo que tarde el cliente en recibirla no dice nada de la carga del
+ * servidor y no debe bajar el límite (el hueco sí se ocupa hasta terminar de escribir).
+ *
+ * Métricas: funko.concurrency.limit, funko.concurrency.inflight y funko.concurrency.rejected{class}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AimdConcurrencyLimiter limiter;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    public ConcurrencyLimitFilter(AimdConcurrencyLimiter limiter, MeterRegistry registry) {
+        this.limiter = limiter;
+        Gauge.builder("funko.concurrency.limit", limiter, AimdConcurrencyLimiter::getLimit).register(registry);
+        Gauge.builder("funko.concurrency.inflight", limiter, AimdConcurrencyLimiter::getInFlight).register(registry);
+        this.readsRejected = Counter.builder("funko.concurrency.rejected").tag("class", "read").register(registry);
+        this.writesRejected = Counter.builder("funko.concurrency.rejected").tag("class", "write").register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean escritura = !esLectura(request.getMethod());
+        if (!limiter.tryAcquire(escritura)) {
+            (escritura ? writesRejected : readsRejected).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            ProblemResponses.write(response, ProblemResponses.serviceUnavailable());
+            return;
+        }
+        long inicio = System.nanoTime();
+        MedidaServicio medida = new MedidaServicio(response);
+        boolean fallo = true;
+        try {
+            chain.doFilter(request, medida);
+            fallo = response.getStatus() >= 500;
+        } finally {
+            long fin = medida.inicioEscritura != 0 ? medida.inicioEscritura : System.nanoTime();
+            limiter.release(fin - inicio, fallo);
+        }
+    }
+
+    // Apunta el momento en que se empieza a escribir la respuesta (cuerpo, error o redirección)
+    static final class MedidaServicio extends HttpServletResponseWrapper {
+
+        private long inicioEscritura;
+
+        MedidaServicio(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void marcar() {
+            if (inicioEscritura == 0) {
+                inicioEscritura = System.nanoTime();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            marcar();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            marcar();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            marcar();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            marcar();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            marcar();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            marcar();
+            super.sendRedirect(location);
+        }
+    }
+
+    private static boolean esLectura(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
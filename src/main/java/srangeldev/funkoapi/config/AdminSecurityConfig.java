@@ -0,0 +1,26 @@
+package srangeldev.funkoapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import srangeldev.funkoapi.admin.AdminTokenFilter;
+
+/**
+ * Autenticación de los endpoints de administración (funkoapi.admin.token). Siempre activa: si los
+ * endpoints están habilitados pero no hay token, responden 401.
+ */
+@Configuration
+public class AdminSecurityConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdminTokenFilter> adminTokenFilterRegistration(
+            @Value("${funkoapi.admin.token:}") String token) {
+        FilterRegistrationBean<AdminTokenFilter> registration = new FilterRegistrationBean<>(new AdminTokenFilter(token));
+        registration.addUrlPatterns("/admin/*");
+        // Antes que cualquier otro filtro: una petición sin token no debe hacer ningún trabajo
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,20 @@
+package srangeldev.funkoapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import srangeldev.funkoapi.backup.DatabaseRestoreProcessor;
+
+/**
+ * Copias de seguridad y restauración de la BBDD en fichero (funkoapi.backup.*, perfil persistent).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funkoapi.backup", name = "enabled", havingValue = "true")
+public class BackupConfig {
+
+    // static para que el post-procesador se registre sin crear esta configuración antes de tiempo
+    @Bean
+    public static DatabaseRestoreProcessor databaseRestoreProcessor() {
+        return new DatabaseRestoreProcessor();
+    }
+}
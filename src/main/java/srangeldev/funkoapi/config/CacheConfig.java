@@ -0,0 +1,71 @@
+package srangeldev.funkoapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import srangeldev.funkoapi.cache.CacheInvalidationBus;
+import srangeldev.funkoapi.cache.CacheInvalidationTransport;
+import srangeldev.funkoapi.cache.InstrumentedCache;
+import srangeldev.funkoapi.cache.InstrumentedCacheManager;
+import srangeldev.funkoapi.cache.LocalInvalidationTransport;
+import srangeldev.funkoapi.cache.MulticastInvalidationTransport;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Configuración de la caché: Caffeine decorada con {@link InstrumentedCache} y coherente entre
+ * réplicas gracias al bus de invalidación (funkoapi.cache.invalidation.*).
+ *
+ * Al declarar nuestro propio CacheManager la autoconfiguración de Spring Boot se retira,
+ * así que leemos aquí las mismas propiedades spring.cache.*.
+ */
+@Configuration
+public class CacheConfig {
+
+    // "local" (un solo nodo / tests) o "multicast" (varias réplicas en la misma red)
+    @Bean
+    public CacheInvalidationTransport cacheInvalidationTransport(
+            @Value("${funkoapi.cache.invalidation.transport:local}") String transport,
+            @Value("${funkoapi.cache.invalidation.multicast.group:239.255.42.99}") String group,
+            @Value("${funkoapi.cache.invalidation.multicast.port:45599}") int port,
+            @Value("${funkoapi.cache.invalidation.multicast.ttl:1}") int ttl) throws IOException {
+        return switch (transport) {
+            case "local" -> new LocalInvalidationTransport();
+            case "multicast" -> new MulticastInvalidationTransport(group, port, ttl);
+            default -> throw new IllegalArgumentException("Transporte de invalidación desconocido: " + transport);
+        };
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(CacheInvalidationTransport transport) {
+        return new CacheInvalidationBus(transport);
+    }
+
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.cache-names:funkos}") List<String> cacheNames,
+                                     @Value("${spring.cache.caffeine.spec:maximumSize=10000,recordStats}") String spec,
+                                     ObservationRegistry observationRegistry,
+                                     MeterRegistry meterRegistry,
+                                     CacheInvalidationBus invalidationBus) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCacheSpecification(spec);
+        caffeine.setCacheNames(cacheNames);
+        return new InstrumentedCacheManager(caffeine, observationRegistry, meterRegistry, invalidationBus);
+    }
+
+    // Permite que Actuator siga publicando cache.gets{result=hit|miss} de la caché Caffeine decorada
+    @Bean
+    public CacheMeterBinderProvider<InstrumentedCache> instrumentedCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getDelegate() instanceof CaffeineCache caffeine
+                ? new CaffeineCacheMetrics<>(caffeine.getNativeCache(), cache.getName(), tags)
+                : null;
+    }
+}
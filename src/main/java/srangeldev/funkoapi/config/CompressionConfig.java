@@ -0,0 +1,43 @@
+package srangeldev.funkoapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import srangeldev.funkoapi.compression.CatalogSnapshotFilter;
+import srangeldev.funkoapi.compression.CatalogVersion;
+import srangeldev.funkoapi.repositories.FunkoCambioRepository;
+import srangeldev.funkoapi.services.ChangeFeedService;
+
+import java.time.Duration;
+
+/**
+ * Instantánea precomprimida del catálogo (funkoapi.catalog.snapshot.*). El resto de respuestas
+ * las comprime Tomcat según server.compression.*, con el mismo umbral de tamaño.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funkoapi.catalog.snapshot", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CatalogSnapshotFilter> catalogSnapshotFilter(
+            ChangeFeedService changeFeed, FunkoCambioRepository cambios, MeterRegistry registry,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${funkoapi.catalog.snapshot.version-refresh:PT1S}") Duration versionRefresh,
+            @Value("${funkoapi.catalog.snapshot.ttl:PT1M}") Duration ttl,
+            @Value("${funkoapi.catalog.snapshot.max-size:32MB}") DataSize maxSize) {
+        CatalogVersion version = new CatalogVersion(cambios::countCambios, changeFeed::getCambiosConfirmados,
+                versionRefresh);
+        FilterRegistrationBean<CatalogSnapshotFilter> registration = new FilterRegistrationBean<>(
+                new CatalogSnapshotFilter(version, (int) minResponseSize.toBytes(), ttl,
+                        (int) maxSize.toBytes(), registry));
+        registration.addUrlPatterns("/funkos", "/funkos/");
+        // Por delante del resto de filtros del API: un acierto no necesita ninguno
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+        return registration;
+    }
+}
@@ -0,0 +1,40 @@
+package srangeldev.funkoapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import srangeldev.funkoapi.concurrency.AimdConcurrencyLimiter;
+import srangeldev.funkoapi.concurrency.ConcurrencyLimitFilter;
+
+import java.time.Duration;
+
+/**
+ * Límite adaptativo de concurrencia sobre el API de Funkos (funkoapi.concurrency.*).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funkoapi.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            MeterRegistry registry,
+            @Value("${funkoapi.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${funkoapi.concurrency.min-limit:4}") int minLimit,
+            @Value("${funkoapi.concurrency.max-limit:200}") int maxLimit,
+            @Value("${funkoapi.concurrency.backoff:0.9}") double backoff,
+            @Value("${funkoapi.concurrency.latency-target:PT0.25S}") Duration latencyTarget,
+            @Value("${funkoapi.concurrency.write-ratio:0.5}") double writeRatio) {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoff,
+                latencyTarget, writeRatio);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, registry));
+        registration.addUrlPatterns("/funkos", "/funkos/*");
+        // Detrás del límite por cliente y delante de la instantánea del catálogo y del resto
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 15);
+        return registration;
+    }
+}
@@ -0,0 +1,75 @@
+package srangeldev.funkoapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import srangeldev.funkoapi.routing.ReadWriteRoutingDataSource;
+import srangeldev.funkoapi.routing.ReadYourWritesFilter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primario y réplica de lectura (funkoapi.datasource.replica.*).
+ *
+ * El primario sale de spring.datasource.*; la réplica tiene su propio pool de sólo lectura.
+ * El DataSource que usa la aplicación (JPA, inicialización SQL...) es el de enrutado.
+ * En local la réplica apunta por defecto a la misma BBDD en memoria, así que siempre está al día;
+ * en un despliegue real se le da la URL de la réplica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funkoapi.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public DataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public DataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${funkoapi.datasource.replica.url:${spring.datasource.url}}") String url,
+            @Value("${funkoapi.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${funkoapi.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${funkoapi.datasource.replica.read-your-writes-window:PT5S}") Duration window,
+            @Value("${funkoapi.ratelimit.max-keys:100000}") long maxClients) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window, maxClients));
+        registration.addUrlPatterns("/funkos", "/funkos/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 5);
+        return registration;
+    }
+}
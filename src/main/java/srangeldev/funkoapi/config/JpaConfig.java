@@ -0,0 +1,22 @@
+package srangeldev.funkoapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Auditoría JPA: rellena createdAt/updatedAt de Funko en cada alta y modificación,
+ * que es lo que usa la sincronización incremental (GET /funkos/changes).
+ *
+ * Los repositorios se declaran aquí para cambiar el sufijo de las implementaciones a medida:
+ * con el de por defecto ("Impl"), Spring Data tomaría FunkoRepositoryImpl (el motor en memoria)
+ * como fragmento de FunkoRepository y le enviaría save(), findById()...
+ *
+ * Va en su propia configuración y no en la clase principal para que los tests de slice
+ * (sin JPA) no la carguen.
+ */
+@Configuration
+@EnableJpaAuditing
+@EnableJpaRepositories(basePackages = "srangeldev.funkoapi.repositories", repositoryImplementationPostfix = "Fragment")
+public class JpaConfig {
+}
@@ -0,0 +1,48 @@
+package srangeldev.funkoapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import srangeldev.funkoapi.ratelimit.GcraRateLimiter;
+import srangeldev.funkoapi.ratelimit.RateLimitFilter;
+
+import java.util.Set;
+
+/**
+ * Límite de peticiones por cliente (funkoapi.ratelimit.*), con límites distintos para lecturas y escrituras.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funkoapi.ratelimit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(
+            MeterRegistry registry,
+            @Value("${funkoapi.ratelimit.read.rate:50}") double readRate,
+            @Value("${funkoapi.ratelimit.read.burst:100}") int readBurst,
+            @Value("${funkoapi.ratelimit.write.rate:5}") double writeRate,
+            @Value("${funkoapi.ratelimit.write.burst:10}") int writeBurst,
+            @Value("${funkoapi.ratelimit.max-keys:100000}") int maxKeys,
+            @Value("${funkoapi.ratelimit.api-keys:}") Set<String> apiKeys,
+            @Value("${funkoapi.ratelimit.max-keys-per-ip:5}") int maxKeysPerIp) {
+        GcraRateLimiter reads = new GcraRateLimiter(readRate, readBurst, maxKeys);
+        GcraRateLimiter writes = new GcraRateLimiter(writeRate, writeBurst, maxKeys);
+        Gauge.builder("funko.ratelimit.keys", reads, GcraRateLimiter::size).tag("class", "read").register(registry);
+        Gauge.builder("funko.ratelimit.keys", writes, GcraRateLimiter::size).tag("class", "write").register(registry);
+        return new RateLimitFilter(reads, writes, apiKeys, maxKeysPerIp, maxKeys, registry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/funkos", "/funkos/*");
+        // El primero del API: una petición rechazada no debe costar nada más
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 20);
+        return registration;
+    }
+}
@@ -0,0 +1,38 @@
+package srangeldev.funkoapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import srangeldev.funkoapi.sql.DataSourceProxyBeanPostProcessor;
+import srangeldev.funkoapi.sql.QueryTrackingFilter;
+
+/**
+ * Configuración del seguimiento de SQL por petición (funkoapi.sql.tracking.*).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funkoapi.sql.tracking", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTrackingConfig {
+
+    // static para que el post-procesador no fuerce la creación temprana de esta configuración
+    @Bean
+    public static DataSourceProxyBeanPostProcessor dataSourceProxyBeanPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new DataSourceProxyBeanPostProcessor(observationRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryTrackingFilter> queryTrackingFilter(
+            MeterRegistry registry,
+            @Value("${funkoapi.sql.tracking.query-budget:10}") int queryBudget,
+            @Value("${funkoapi.sql.tracking.debug-headers:false}") boolean debugHeaders) {
+        FilterRegistrationBean<QueryTrackingFilter> registration =
+                new FilterRegistrationBean<>(new QueryTrackingFilter(registry, queryBudget, debugHeaders));
+        registration.addUrlPatterns("/funkos", "/funkos/*");
+        return registration;
+    }
+}
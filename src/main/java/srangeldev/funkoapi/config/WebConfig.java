@@ -0,0 +1,18 @@
+package srangeldev.funkoapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import srangeldev.funkoapi.jfr.FunkoRequestJfrInterceptor;
+
+/**
+ * Configuración de Spring MVC: interceptores sobre el API de Funkos.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new FunkoRequestJfrInterceptor()).addPathPatterns("/funkos", "/funkos/**");
+    }
+}
@@ -0,0 +1,56 @@
+package srangeldev.funkoapi.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import srangeldev.funkoapi.backup.DatabaseBackupService;
+import srangeldev.funkoapi.exceptions.ProblemResponses;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Endpoint de administración para las copias de seguridad en caliente de la BBDD en fichero.
+ *
+ * POST /admin/backup crea una copia y GET /admin/backup lista las existentes. Para restaurar,
+ * se arranca el nodo con funkoapi.backup.restore-from=&lt;fichero&gt;.
+ * Va detrás de AdminTokenFilter (/admin/*); si la última copia es demasiado reciente responde 429.
+ */
+@RestController
+@RequestMapping("/admin/backup")
+@ConditionalOnProperty(prefix = "funkoapi.backup", name = "enabled", havingValue = "true")
+public class BackupController {
+
+    private final DatabaseBackupService backupService;
+
+    public BackupController(DatabaseBackupService backupService) {
+        this.backupService = backupService;
+    }
+
+    // Crear una copia
+    @PostMapping
+    public ResponseEntity<?> backup() throws IOException {
+        Optional<Path> creada = backupService.backup();
+        if (creada.isEmpty()) {
+            ResponseEntity<byte[]> problem = ProblemResponses.tooManyRequests();
+            return ResponseEntity.status(problem.getStatusCode())
+                    .headers(problem.getHeaders())
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(backupService.secondsUntilNext()))
+                    .body(problem.getBody());
+        }
+        Path fichero = creada.get();
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("file", fichero.toString(), "bytes", Files.size(fichero)));
+    }
+
+    // Copias disponibles
+    @GetMapping
+    public List<String> list() {
+        return backupService.list().stream().map(Path::toString).toList();
+    }
+}
@@ -0,0 +1,38 @@
+package srangeldev.funkoapi.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import srangeldev.funkoapi.snapshot.CatalogSnapshotPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Endpoint de administración para publicar la instantánea del catálogo que sirven las réplicas de borde.
+ * Sólo existe con funkoapi.snapshot.publish.enabled=true y va detrás de AdminTokenFilter (/admin/*).
+ */
+@RestController
+@RequestMapping("/admin/catalog-snapshot")
+@ConditionalOnProperty(prefix = "funkoapi.snapshot.publish", name = "enabled", havingValue = "true")
+public class CatalogSnapshotController {
+
+    private final CatalogSnapshotPublisher publisher;
+
+    public CatalogSnapshotController(CatalogSnapshotPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    // Publicar una instantánea nueva
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> publish() throws IOException {
+        Path fichero = publisher.publish();
+        return Map.of("file", fichero.toString(), "bytes", Files.size(fichero));
+    }
+}
@@ -0,0 +1,68 @@
+package srangeldev.funkoapi.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import srangeldev.funkoapi.dto.FunkoChangesDto;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.mappers.FunkoMapper;
+import srangeldev.funkoapi.services.ChangeFeedService;
+import srangeldev.funkoapi.services.FunkoService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cambios del catálogo, para clientes que antes hacían polling de la lista completa.
+ *
+ * - GET /funkos/events abre un stream SSE: cada evento lleva como id su secuencia, así que al reconectar
+ *   el navegador envía Last-Event-ID y se reciben sólo los cambios perdidos (también vale ?since=seq).
+ * - GET /funkos/changes?since=fecha devuelve lo modificado y borrado desde esa fecha, para réplicas
+ *   que sincronizan por lotes en lugar de descargar el catálogo entero.
+ */
+@RestController
+@RequestMapping("/funkos")
+public class FunkoCambiosController {
+
+    private final ChangeFeedService changeFeed;
+    private final FunkoService funkoService;
+    private final FunkoMapper mapper;
+    private final Duration margenWatermark;
+
+    public FunkoCambiosController(ChangeFeedService changeFeed, FunkoService funkoService, FunkoMapper mapper,
+                                  @Value("${funkoapi.changes.watermark-lag:PT10S}") Duration margenWatermark) {
+        this.changeFeed = changeFeed;
+        this.funkoService = funkoService;
+        this.mapper = mapper;
+        this.margenWatermark = margenWatermark;
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                             @RequestParam(required = false) Long since) {
+        return changeFeed.suscribir(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<FunkoChangesDto> changes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        // updatedAt se pone al hacer flush, antes del commit: una fila de una transacción aún abierta no sale
+        // en esta consulta aunque su fecha sea anterior a "ahora". Por eso la marca de agua se retrasa un margen
+        // (funkoapi.changes.watermark-lag): lo cambiado en ese margen vuelve en la siguiente llamada (repetido,
+        // los clientes aplican los cambios por id) y no se pierde mientras las escrituras duren menos que él
+        LocalDateTime watermark = LocalDateTime.now().minus(margenWatermark);
+        List<FunkoResponseDto> modificados = funkoService.getModifiedSince(since).stream()
+                .map(mapper::toResponse)
+                .toList();
+        List<Long> eliminados = funkoService.getDeletedSince(since);
+        return ResponseEntity.ok(new FunkoChangesDto(watermark, modificados, eliminados));
+    }
+}
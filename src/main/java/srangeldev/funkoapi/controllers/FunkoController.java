@@ -1,26 +1,39 @@
 package srangeldev.funkoapi.controllers;
 
+import io.micrometer.observation.annotation.Observed;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import srangeldev.funkoapi.dto.FunkoMultiGetItemDto;
+import srangeldev.funkoapi.dto.FunkoMultiGetRequestDto;
 import srangeldev.funkoapi.dto.FunkoRequestDto;
 import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.exceptions.FunkoException;
 import srangeldev.funkoapi.mappers.FunkoMapper;
 import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
 import srangeldev.funkoapi.services.FunkoService;
 
 import java.net.URI;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Controlador REST para la gestión de Funkos.
  *
  * Sólo orquesta las peticiones/respuestas y delega la lógica en el servicio.
+ * Cada handler genera un span "funko.controller" (incluye el mapeo a DTO).
+ *
+ * Los listados devuelven un Stream: el converter de Jackson (JSON, CBOR o Smile) escribe cada elemento
+ * en el generador según lo va recorriendo, sin construir antes una lista con toda la respuesta.
  */
 @RestController
+@Observed(name = "funko.controller")
 @RequestMapping("/funkos")
 @Validated
 public class FunkoController {
@@ -33,30 +46,46 @@ public class FunkoController {
         this.mapper = mapper;
     }
 
-    // Obtener todos los Funkos
+    // Obtener todos los Funkos (ya proyectados a DTO por el servicio)
+    // Con ?fields=id,nombre,precio sólo se consultan y devuelven esos campos
     @GetMapping
     @RequestMapping({"/", ""})
-    public ResponseEntity<List<FunkoResponseDto>> getAll() {
-        List<FunkoResponseDto> lista = funkoService.getAll().stream()
-                .map(mapper::toResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(funkoService.streamAllFields(campos(fields)));
+        }
+        return ResponseEntity.ok(funkoService.streamAllResponses());
     }
 
-    // Obtener un Funko por ID
+    // Obtener un Funko por ID (admite ?fields= igual que el listado)
     @GetMapping("/{id}")
-    public ResponseEntity<FunkoResponseDto> getById(@PathVariable Long id) {
+    public ResponseEntity<?> getById(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(funkoService.getFieldsById(id, campos(fields)));
+        }
         Funko funko = funkoService.getById(id);
         return ResponseEntity.ok(mapper.toResponse(funko));
     }
 
+    // Obtener varios Funkos por ID en una sola llamada: GET /funkos?ids=1,2,3
+    @GetMapping(value = {"/", ""}, params = "ids")
+    public ResponseEntity<Stream<FunkoMultiGetItemDto>> getByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(multiGet(ids));
+    }
+
+    // Lo mismo por POST, para listas de ids que no caben en la URL
+    @PostMapping("/_mget")
+    public ResponseEntity<Stream<FunkoMultiGetItemDto>> mget(@Valid @RequestBody FunkoMultiGetRequestDto dto) {
+        return ResponseEntity.ok(multiGet(dto.ids()));
+    }
+
     // Crear un nuevo Funko
     @PostMapping
     public ResponseEntity<FunkoResponseDto> create(@Valid @RequestBody FunkoRequestDto dto) {
         Funko creado = funkoService.create(dto);
         FunkoResponseDto resp = mapper.toResponse(creado);
         // Devolvemos 201 Created con Location del recurso
-        return ResponseEntity.created(URI.create("/api/funkos/" + resp.getId())).body(resp);
+        return ResponseEntity.created(URI.create("/api/funkos/" + resp.id())).body(resp);
     }
 
     // Actualizar un Funko por ID (PUT completo)
@@ -80,4 +109,35 @@ public class FunkoController {
     public void delete(@PathVariable Long id) {
         funkoService.delete(id);
     }
+
+    // Campos de ?fields= (separados por comas); uno desconocido o ninguno es un 400
+    private static Set<CampoFunko> campos(String fields) {
+        Set<CampoFunko> campos = EnumSet.noneOf(CampoFunko.class);
+        for (String nombre : fields.split(",")) {
+            if (nombre.isBlank()) {
+                continue;
+            }
+            CampoFunko campo = CampoFunko.of(nombre.trim());
+            if (campo == null) {
+                throw new FunkoException("Campo desconocido en fields", nombre.trim());
+            }
+            campos.add(campo);
+        }
+        if (campos.isEmpty()) {
+            throw new FunkoException("fields debe indicar al menos un campo");
+        }
+        return campos;
+    }
+
+    // Resultado en el orden pedido, marcando los ids que no existen
+    private Stream<FunkoMultiGetItemDto> multiGet(List<Long> ids) {
+        Map<Long, Funko> encontrados = funkoService.getByIds(ids);
+        return ids.stream()
+                .map(id -> {
+                    Funko funko = encontrados.get(id);
+                    return funko != null
+                            ? new FunkoMultiGetItemDto(id, true, mapper.toResponse(funko))
+                            : new FunkoMultiGetItemDto(id, false, null);
+                });
+    }
 }
@@ -0,0 +1,81 @@
+package srangeldev.funkoapi.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import srangeldev.funkoapi.jfr.JfrProfiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Endpoint de administración para perfilar en caliente con JDK Flight Recorder.
+ *
+ * POST /admin/profiling/start arranca la grabación y POST /admin/profiling/stop la detiene
+ * y devuelve el fichero .jfr (se abre con JDK Mission Control o "jfr print").
+ * Sólo existe con funkoapi.profiling.enabled=true y exige X-Admin-Token (ver AdminTokenFilter).
+ */
+@RestController
+@RequestMapping("/admin/profiling")
+@ConditionalOnProperty(prefix = "funkoapi.profiling", name = "enabled", havingValue = "true")
+public class ProfilingController {
+
+    private final JfrProfiler profiler;
+
+    public ProfilingController(JfrProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    // Estado de la grabación
+    @GetMapping
+    public Map<String, Boolean> status() {
+        return Map.of("recording", profiler.isRecording());
+    }
+
+    // Arrancar una grabación
+    @PostMapping("/start")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Map<String, Boolean> start(@RequestParam(defaultValue = "default") String settings,
+                                      @RequestParam(defaultValue = "600") long maxAgeSeconds) {
+        try {
+            profiler.start(settings, Duration.ofSeconds(maxAgeSeconds));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IOException | ParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Configuración JFR no válida: " + settings);
+        }
+        return Map.of("recording", true);
+    }
+
+    // Detener la grabación y descargar el .jfr
+    @PostMapping("/stop")
+    public ResponseEntity<StreamingResponseBody> stop() throws IOException {
+        Path fichero;
+        try {
+            fichero = profiler.stop();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(fichero, out);
+            } finally {
+                Files.deleteIfExists(fichero);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(fichero))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"funko-api.jfr\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,13 @@
+package srangeldev.funkoapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import srangeldev.funkoapi.models.enums.TipoCambio;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento del feed de cambios: secuencia, tipo, id afectado y el Funko resultante (salvo en DELETE).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FunkoCambioDto(Long seq, TipoCambio tipo, Long funkoId, LocalDateTime fecha, FunkoResponseDto funko) {
+}
@@ -0,0 +1,11 @@
+package srangeldev.funkoapi.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Respuesta de la sincronización incremental: Funkos creados o modificados, ids borrados (tombstones)
+ * y la marca de agua que el cliente debe enviar como "since" en la siguiente llamada.
+ */
+public record FunkoChangesDto(LocalDateTime watermark, List<FunkoResponseDto> modificados, List<Long> eliminados) {
+}
@@ -0,0 +1,10 @@
+package srangeldev.funkoapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Un elemento de la respuesta multi-get: el id pedido, si existe y, en ese caso, el Funko.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FunkoMultiGetItemDto(Long id, boolean found, FunkoResponseDto funko) {
+}
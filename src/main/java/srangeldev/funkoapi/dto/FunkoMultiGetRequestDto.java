@@ -0,0 +1,15 @@
+package srangeldev.funkoapi.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * DTO de entrada de POST /funkos/_mget: los ids a recuperar, en el orden deseado.
+ */
+public record FunkoMultiGetRequestDto(
+        @NotEmpty(message = "La lista de ids es obligatoria")
+        List<@NotNull(message = "La lista de ids no puede contener valores vacíos") Long> ids
+) {
+}
@@ -1,6 +1,5 @@
 package srangeldev.funkoapi.dto;
 
-import lombok.Data;
 import srangeldev.funkoapi.models.enums.Categoria;
 
 import java.time.LocalDate;
@@ -8,25 +7,35 @@ import java.time.LocalDateTime;
 
 /**
  * DTO de salida para devolver información del Funko al cliente.
+ * Se sirve en JSON, CBOR o Smile según la cabecera Accept; al ser un record, los clientes Java
+ * (y los benchmarks) pueden leerlo de vuelta en cualquiera de los tres.
+ *
+ * La categoría sale como objeto {id, nombre}, igual que antes de ser un record.
  */
-@Data
-public class FunkoResponseDto {
-    private Long id;
-    private String nombre;
-    private Double precio;
-    private Categoria categoria;
-    private LocalDate fechaLanzamiento;
-    private LocalDateTime createdAt;
-    private LocalDateTime updatedAt;
+public record FunkoResponseDto(
+        Long id,
+        String nombre,
+        Double precio,
+        Categoria categoria,
+        LocalDate fechaLanzamiento,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
 
-    public FunkoResponseDto(Long id, String nombre, Double precio, Categoria categoria, LocalDate fechaLanzamiento,
-                            LocalDateTime createdAt, LocalDateTime updatedAt) {
-        this.id = id;
-        this.nombre = nombre;
-        this.precio = precio;
-        this.categoria = categoria;
-        this.fechaLanzamiento = fechaLanzamiento;
-        this.createdAt = createdAt;
-        this.updatedAt = updatedAt;
+    // Para las proyecciones JPQL (select new ...): la categoría llega como columnas sueltas y se crea
+    // aquí como objeto normal, sin que Hibernate gestione ninguna entidad
+    public FunkoResponseDto(Long id, String nombre, Double precio, Long categoriaId, String categoriaNombre,
+                            LocalDate fechaLanzamiento, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, nombre, precio, categoria(categoriaId, categoriaNombre), fechaLanzamiento, createdAt, updatedAt);
+    }
+
+    private static Categoria categoria(Long id, String nombre) {
+        if (id == null) {
+            return null;
+        }
+        Categoria categoria = new Categoria();
+        categoria.setId(id);
+        categoria.setNombre(nombre);
+        return categoria;
     }
 }
@@ -2,9 +2,25 @@ package srangeldev.funkoapi.exceptions;
 
 /**
  * Excepción base para errores relacionados con Funkos.
+ *
+ * Es una excepción de negocio que se traduce a una respuesta HTTP, así que no captura la traza
+ * de la pila (fillInStackTrace es lo más caro de crear una excepción).
  */
 public class FunkoException extends RuntimeException {
+
+    // Valor de la petición que provocó el error, fuera del mensaje (que así es siempre uno de un conjunto fijo)
+    private final String campo;
+
     public FunkoException(String message) {
-        super(message);
+        this(message, null);
+    }
+
+    public FunkoException(String message, String campo) {
+        super(message, null, false, false);
+        this.campo = campo;
+    }
+
+    public String getCampo() {
+        return campo;
     }
 }
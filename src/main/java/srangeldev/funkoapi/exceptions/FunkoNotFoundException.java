@@ -2,9 +2,24 @@ package srangeldev.funkoapi.exceptions;
 
 /**
  * Excepción específica para indicar que un Funko no existe.
+ *
+ * Sin traza de la pila y con el mensaje construido sólo si alguien lo pide: en el camino
+ * habitual (404) el manejador usa directamente el id.
  */
 public class FunkoNotFoundException extends RuntimeException {
+    private final long id;
+
     public FunkoNotFoundException(Long id) {
-        super("Funko con id " + id + " no encontrado");
+        super(null, null, false, false);
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Funko con id " + id + " no encontrado";
     }
 }
@@ -1,27 +1,29 @@
 package srangeldev.funkoapi.exceptions;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Logger;
 
 /**
- * Manejador global de excepciones adaptado al formato solicitado.
+ * Manejador global de excepciones: responde con problem+json (RFC 7807).
  */
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
-    private final Logger log = Logger.getLogger(GlobalExceptionHandler.class.getName());
 
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo MethodArgumentNotValidException en 400 Bad Request");
+    public ResponseEntity<ProblemDetail> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        log.debug("MANEJADOR DE EXCEPCIONES: Convirtiendo MethodArgumentNotValidException en 400 Bad Request ({} errores)",
+                ex.getErrorCount());
 
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(error -> {
@@ -29,20 +31,29 @@ public class GlobalExceptionHandler {
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
-        return errors;
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Datos del Funko no válidos");
+        problem.setProperty("errors", errors);
+        return ResponseEntity.badRequest().body(problem);
     }
 
-    @ResponseStatus(HttpStatus.NOT_FOUND)
+    // Camino caliente: sin mapas ni Jackson, cuerpo pre-renderizado
     @ExceptionHandler(FunkoNotFoundException.class)
-    public Map<String, String> handleNotFoundExceptions(FunkoNotFoundException ex) {
-        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo FunkoNotFoundException en 404 Not Found");
-        return Map.of("error", ex.getMessage());
+    public ResponseEntity<byte[]> handleNotFoundExceptions(FunkoNotFoundException ex) {
+        log.debug("MANEJADOR DE EXCEPCIONES: Convirtiendo FunkoNotFoundException en 404 Not Found (id {})", ex.getId());
+        return ProblemResponses.notFound(ex.getId());
     }
 
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(FunkoException.class)
-    public Map<String, String> handleBusinessExceptions(FunkoException ex) {
-        log.info("MANEJADOR DE EXCEPCIONES: Convirtiendo FunkoException en 400 Bad Request");
-        return Map.of("error", ex.getMessage());
+    public ResponseEntity<byte[]> handleBusinessExceptions(FunkoException ex) {
+        log.debug("MANEJADOR DE EXCEPCIONES: Convirtiendo FunkoException en 400 Bad Request: {}", ex.getMessage());
+        return ProblemResponses.badRequest(ex.getMessage(), ex.getCampo());
+    }
+
+    // Dos escrituras concurrentes sobre el mismo Funko (p. ej. un PUT y un DELETE): gana la primera en confirmar
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleConcurrentModification(OptimisticLockingFailureException ex) {
+        log.debug("MANEJADOR DE EXCEPCIONES: Convirtiendo OptimisticLockingFailureException en 409 Conflict");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "El Funko se ha modificado o borrado a la vez, vuelve a leerlo y reintenta"));
     }
 }
@@ -0,0 +1,150 @@
+package srangeldev.funkoapi.exceptions;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respuestas de error RFC 7807 (application/problem+json) pre-renderizadas.
+ *
+ * Los 404 y 400 de negocio son un camino caliente (bots probando ids), así que en vez de crear
+ * un mapa y serializarlo con Jackson en cada petición concatenamos trozos de JSON ya codificados.
+ * Se mantiene el campo "error" (igual que "detail") por compatibilidad con los clientes existentes.
+ */
+public final class ProblemResponses {
+
+    private static final byte[] NOT_FOUND_PREFIX = ascii(
+            "{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,\"detail\":\"Funko con id ");
+    private static final byte[] NOT_FOUND_MIDDLE = ascii(" no encontrado\",\"error\":\"Funko con id ");
+    private static final byte[] NOT_FOUND_SUFFIX = ascii(" no encontrado\"}");
+
+    // Rechazos de los filtros de protección (límite de peticiones y de concurrencia): cuerpo fijo
+    private static final byte[] TOO_MANY_REQUESTS = ("{\"type\":\"about:blank\",\"title\":\"Too Many Requests\","
+            + "\"status\":429,\"detail\":\"Demasiadas peticiones, reintenta más tarde\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERVICE_UNAVAILABLE = ("{\"type\":\"about:blank\",\"title\":\"Service Unavailable\","
+            + "\"status\":503,\"detail\":\"Servicio saturado, reintenta más tarde\"}").getBytes(StandardCharsets.UTF_8);
+
+    // Endpoints de administración sin el token correcto
+    private static final byte[] UNAUTHORIZED = ("{\"type\":\"about:blank\",\"title\":\"Unauthorized\","
+            + "\"status\":401,\"detail\":\"Se necesita un token de administración válido\"}").getBytes(StandardCharsets.UTF_8);
+
+    // Los mensajes de negocio son un conjunto pequeño y fijo: cacheamos su cuerpo ya renderizado.
+    // Lo que venga de la petición no forma parte del mensaje sino de la propiedad "field" (badRequest con campo),
+    // para que un cliente no pueda llenar la caché con valores inventados
+    private static final int MAX_CACHED_MESSAGES = 64;
+    private static final Map<String, byte[]> BAD_REQUEST_BODIES = new ConcurrentHashMap<>();
+
+    private ProblemResponses() {
+    }
+
+    public static ResponseEntity<byte[]> notFound(long id) {
+        byte[] idBytes = ascii(Long.toString(id));
+        byte[] body = new byte[NOT_FOUND_PREFIX.length + NOT_FOUND_MIDDLE.length + NOT_FOUND_SUFFIX.length
+                + 2 * idBytes.length];
+        int pos = copy(NOT_FOUND_PREFIX, body, 0);
+        pos = copy(idBytes, body, pos);
+        pos = copy(NOT_FOUND_MIDDLE, body, pos);
+        pos = copy(idBytes, body, pos);
+        copy(NOT_FOUND_SUFFIX, body, pos);
+        return problem(HttpStatus.NOT_FOUND, body);
+    }
+
+    public static ResponseEntity<byte[]> badRequest(String message) {
+        byte[] body = BAD_REQUEST_BODIES.get(message);
+        if (body == null) {
+            body = renderBadRequest(message);
+            if (BAD_REQUEST_BODIES.size() < MAX_CACHED_MESSAGES) {
+                BAD_REQUEST_BODIES.putIfAbsent(message, body);
+            }
+        }
+        return problem(HttpStatus.BAD_REQUEST, body);
+    }
+
+    // Como badRequest(message), con el valor rechazado en "field": el cuerpo cacheado del mensaje más esa propiedad
+    public static ResponseEntity<byte[]> badRequest(String message, String campo) {
+        if (campo == null) {
+            return badRequest(message);
+        }
+        byte[] base = badRequest(message).getBody();
+        byte[] field = (",\"field\":\"" + escape(campo) + "\"}").getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[base.length - 1 + field.length];
+        int pos = copy(base, body, 0) - 1;
+        copy(field, body, pos);
+        return problem(HttpStatus.BAD_REQUEST, body);
+    }
+
+    public static ResponseEntity<byte[]> tooManyRequests() {
+        return problem(HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS);
+    }
+
+    public static ResponseEntity<byte[]> unauthorized() {
+        return problem(HttpStatus.UNAUTHORIZED, UNAUTHORIZED);
+    }
+
+    public static ResponseEntity<byte[]> serviceUnavailable() {
+        return problem(HttpStatus.SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Escribe una de estas respuestas directamente sobre el servlet (para los filtros, que van por
+     * delante de Spring MVC). Las cabeceras ya puestas en la respuesta, como Retry-After, se conservan.
+     */
+    public static void write(HttpServletResponse response, ResponseEntity<byte[]> problem) throws IOException {
+        byte[] body = problem.getBody();
+        response.setStatus(problem.getStatusCode().value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static byte[] renderBadRequest(String message) {
+        String detail = escape(message);
+        return ("{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,\"detail\":\"" + detail
+                + "\",\"error\":\"" + detail + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ResponseEntity<byte[]> problem(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_PROBLEM_JSON).body(body);
+    }
+
+    // Escapado JSON mínimo para los mensajes de negocio
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int copy(byte[] src, byte[] dest, int pos) {
+        System.arraycopy(src, 0, dest, pos, src.length);
+        return pos + src.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,28 @@
+package srangeldev.funkoapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR por cada consulta a la caché de Funkos (acierto o fallo).
+ */
+@Name("srangeldev.funkoapi.CacheLookup")
+@Label("Funko Cache Lookup")
+@Description("Consulta a la caché de Funkos")
+@Category({"FunkoApi", "Cache"})
+@StackTrace(false)
+public class FunkoCacheEvent extends Event {
+
+    @Label("Caché")
+    public String cache;
+
+    @Label("Clave")
+    public String key;
+
+    @Label("Acierto")
+    public boolean hit;
+}
@@ -0,0 +1,28 @@
+package srangeldev.funkoapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR con la duración de cada petición atendida por FunkoController.
+ */
+@Name("srangeldev.funkoapi.Request")
+@Label("Funko Request")
+@Description("Petición HTTP atendida por FunkoController")
+@Category({"FunkoApi", "Web"})
+@StackTrace(false)
+public class FunkoRequestEvent extends Event {
+
+    @Label("Método HTTP")
+    public String method;
+
+    @Label("Patrón de URI")
+    public String uri;
+
+    @Label("Estado HTTP")
+    public int status;
+}
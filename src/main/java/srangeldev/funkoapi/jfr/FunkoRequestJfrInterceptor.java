@@ -0,0 +1,39 @@
+package srangeldev.funkoapi.jfr;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Interceptor que emite un {@link FunkoRequestEvent} por cada petición a FunkoController.
+ * Si no hay ninguna grabación JFR activa el coste es prácticamente nulo (isEnabled() es false).
+ */
+public class FunkoRequestJfrInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = FunkoRequestJfrInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        FunkoRequestEvent event = new FunkoRequestEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(EVENT_ATTRIBUTE) instanceof FunkoRequestEvent event) {
+            event.end();
+            if (event.shouldCommit()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.method = request.getMethod();
+                event.uri = pattern != null ? pattern.toString() : request.getRequestURI();
+                event.status = response.getStatus();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package srangeldev.funkoapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR con la duración de cada guardado en el repositorio.
+ */
+@Name("srangeldev.funkoapi.Save")
+@Label("Funko Save")
+@Description("Guardado de un Funko en el repositorio")
+@Category({"FunkoApi", "Service"})
+@StackTrace(false)
+public class FunkoSaveEvent extends Event {
+
+    @Label("Operación")
+    public String operation;
+
+    @Label("Id")
+    public long id;
+}
@@ -0,0 +1,25 @@
+package srangeldev.funkoapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR cuando una regla de negocio del servicio rechaza un Funko.
+ */
+@Name("srangeldev.funkoapi.ValidationFailure")
+@Label("Funko Validation Failure")
+@Description("Regla de negocio incumplida en FunkoServiceImpl")
+@Category({"FunkoApi", "Service"})
+@StackTrace(false)
+public class FunkoValidationFailureEvent extends Event {
+
+    @Label("Campo")
+    public String field;
+
+    @Label("Mensaje")
+    public String message;
+}
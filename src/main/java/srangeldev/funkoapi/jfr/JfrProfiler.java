@@ -0,0 +1,85 @@
+package srangeldev.funkoapi.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Gestiona una única grabación de JDK Flight Recorder bajo demanda.
+ *
+ * La grabación usa una de las configuraciones del JDK ("default" ~1% de overhead, "profile" más detallada)
+ * y además activa los eventos propios de la aplicación. Se desactivan siempre los eventos con las
+ * variables de entorno y las propiedades de sistema del arranque: el .jfr se descarga por HTTP y ahí
+ * suelen ir contraseñas y tokens.
+ */
+@Slf4j
+@Component
+public class JfrProfiler {
+
+    static final List<Class<? extends jdk.jfr.Event>> FUNKO_EVENTS = List.of(
+            FunkoRequestEvent.class, FunkoCacheEvent.class, FunkoValidationFailureEvent.class, FunkoSaveEvent.class);
+
+    // Eventos del JDK que vuelcan secretos de la configuración del proceso
+    static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    private Recording recording;
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Arranca una grabación.
+     *
+     * @param settings configuración JFR del JDK ("default" o "profile")
+     * @param maxAge   antigüedad máxima de los datos que se conservan (buffer circular)
+     * @throws IllegalStateException si ya hay una grabación en curso
+     */
+    public synchronized void start(String settings, Duration maxAge) throws IOException, ParseException {
+        if (recording != null) {
+            throw new IllegalStateException("Ya hay una grabación JFR en curso");
+        }
+        Recording nueva = new Recording(Configuration.getConfiguration(settings));
+        nueva.setName("funko-api");
+        nueva.setToDisk(true);
+        nueva.setMaxAge(maxAge);
+        for (Class<? extends jdk.jfr.Event> event : FUNKO_EVENTS) {
+            nueva.enable(event).withoutStackTrace();
+        }
+        for (String event : SENSITIVE_EVENTS) {
+            nueva.disable(event);
+        }
+        nueva.start();
+        recording = nueva;
+        log.info("Grabación JFR iniciada (settings={}, maxAge={})", settings, maxAge);
+    }
+
+    /**
+     * Detiene la grabación en curso y la vuelca a un fichero temporal .jfr que el llamador debe borrar.
+     *
+     * @throws IllegalStateException si no hay ninguna grabación en curso
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No hay ninguna grabación JFR en curso");
+        }
+        Path destino = Files.createTempFile("funko-api-", ".jfr");
+        try {
+            recording.stop();
+            recording.dump(destino);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        log.info("Grabación JFR detenida y volcada en {}", destino);
+        return destino;
+    }
+}
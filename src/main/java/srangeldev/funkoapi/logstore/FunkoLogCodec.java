@@ -0,0 +1,188 @@
+package srangeldev.funkoapi.logstore;
+
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Formato de los registros del log de Funkos.
+ *
+ * Cada registro es [int longitud del cuerpo][int CRC32 del cuerpo][cuerpo], y el cuerpo empieza por
+ * [byte tipo][long id]:
+ *
+ * - PUT: la versión completa de un Funko (alta o modificación).
+ * - DELETE: el borrado de un id, con su fecha.
+ * - SEQ: cabecera del fichero (id 0), con la generación (cambia en cada compactación) y el siguiente id.
+ *
+ * Los nulos se codifican con marcas (Long.MIN_VALUE o un byte de presencia) para que el registro sea
+ * compacto y se pueda leer con un único ByteBuffer, sin serialización de Java ni JSON.
+ */
+final class FunkoLogCodec {
+
+    static final int HEADER = 8;
+    // Tipo, id, createdAt y updatedAt al principio del cuerpo de un PUT
+    static final int PREFIJO_FECHAS = 1 + 8 + 12 + 12;
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final byte SEQ = 3;
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private FunkoLogCodec() {
+    }
+
+    static ByteBuffer put(Funko f) {
+        return registro(PUT, f.getId(), out -> {
+            writeFecha(out, f.getCreatedAt());
+            writeFecha(out, f.getUpdatedAt());
+            out.writeLong(f.getFechaLanzamiento() != null ? f.getFechaLanzamiento().toEpochDay() : NULL_LONG);
+            out.writeBoolean(f.getPrecio() != null);
+            out.writeDouble(f.getPrecio() != null ? f.getPrecio() : 0);
+            out.writeBoolean(f.getUuid() != null);
+            out.writeLong(f.getUuid() != null ? f.getUuid().getMostSignificantBits() : 0);
+            out.writeLong(f.getUuid() != null ? f.getUuid().getLeastSignificantBits() : 0);
+            Categoria c = f.getCategoria();
+            out.writeBoolean(c != null);
+            out.writeLong(c != null && c.getId() != null ? c.getId() : NULL_LONG);
+            writeString(out, c != null ? c.getNombre() : null);
+            writeString(out, f.getNombre());
+        });
+    }
+
+    static ByteBuffer delete(long id, LocalDateTime deletedAt) {
+        return registro(DELETE, id, out -> writeFecha(out, deletedAt));
+    }
+
+    static ByteBuffer seq(long generation, long nextId) {
+        return registro(SEQ, 0, out -> {
+            out.writeLong(generation);
+            out.writeLong(nextId);
+        });
+    }
+
+    // --- Lectura (el cuerpo va sin la cabecera de longitud y CRC) ---
+
+    static byte tipo(ByteBuffer cuerpo) {
+        return cuerpo.get(0);
+    }
+
+    static long id(ByteBuffer cuerpo) {
+        return cuerpo.getLong(1);
+    }
+
+    // Fecha de modificación de un registro PUT: basta con sus primeros PREFIJO_FECHAS bytes
+    static LocalDateTime updatedAt(ByteBuffer cuerpo) {
+        return readFecha(cuerpo.duplicate().position(21));
+    }
+
+    // Fecha de borrado de un registro DELETE
+    static LocalDateTime deletedAt(ByteBuffer cuerpo) {
+        return readFecha(cuerpo.duplicate().position(9));
+    }
+
+    static long generation(ByteBuffer cuerpo) {
+        return cuerpo.getLong(9);
+    }
+
+    static long nextId(ByteBuffer cuerpo) {
+        return cuerpo.getLong(17);
+    }
+
+    static Funko funko(ByteBuffer cuerpo) {
+        ByteBuffer in = cuerpo.duplicate().position(9);
+        Funko f = new Funko();
+        f.setId(id(cuerpo));
+        f.setCreatedAt(readFecha(in));
+        f.setUpdatedAt(readFecha(in));
+        long dia = in.getLong();
+        f.setFechaLanzamiento(dia != NULL_LONG ? LocalDate.ofEpochDay(dia) : null);
+        boolean hayPrecio = in.get() != 0;
+        double precio = in.getDouble();
+        f.setPrecio(hayPrecio ? precio : null);
+        boolean hayUuid = in.get() != 0;
+        long msb = in.getLong();
+        long lsb = in.getLong();
+        f.setUuid(hayUuid ? new UUID(msb, lsb) : null);
+        boolean hayCategoria = in.get() != 0;
+        long categoriaId = in.getLong();
+        String categoriaNombre = readString(in);
+        if (hayCategoria) {
+            Categoria c = new Categoria();
+            c.setId(categoriaId != NULL_LONG ? categoriaId : null);
+            c.setNombre(categoriaNombre);
+            f.setCategoria(c);
+        }
+        f.setNombre(readString(in));
+        return f;
+    }
+
+    static int crc(ByteBuffer cuerpo) {
+        CRC32 crc = new CRC32();
+        crc.update(cuerpo.duplicate().position(0));
+        return (int) crc.getValue();
+    }
+
+    private interface Escritura {
+        void escribir(DataOutputStream out) throws IOException;
+    }
+
+    private static ByteBuffer registro(byte tipo, long id, Escritura payload) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(tipo);
+            out.writeLong(id);
+            payload.escribir(out);
+            ByteBuffer cuerpo = ByteBuffer.wrap(bytes.toByteArray());
+            ByteBuffer registro = ByteBuffer.allocate(HEADER + cuerpo.capacity());
+            registro.putInt(cuerpo.capacity()).putInt(crc(cuerpo)).put(cuerpo);
+            return registro.flip();
+        } catch (IOException e) {
+            // Sólo se escribe en memoria
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFecha(DataOutputStream out, LocalDateTime fecha) throws IOException {
+        out.writeLong(fecha != null ? fecha.toEpochSecond(ZoneOffset.UTC) : NULL_LONG);
+        out.writeInt(fecha != null ? fecha.getNano() : 0);
+    }
+
+    private static LocalDateTime readFecha(ByteBuffer in) {
+        long segundos = in.getLong();
+        int nanos = in.getInt();
+        return segundos != NULL_LONG ? LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return s;
+    }
+}
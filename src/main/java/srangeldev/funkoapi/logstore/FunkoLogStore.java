@@ -0,0 +1,887 @@
+package srangeldev.funkoapi.logstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+import srangeldev.funkoapi.repositories.FunkoStorageEngine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Almacenamiento de Funkos en un log de sólo escritura al final (perfil "log").
+ *
+ * - Cada alta, modificación o borrado añade un registro (ver FunkoLogCodec) al final del fichero;
+ *   nunca se reescribe nada en su sitio.
+ * - En memoria sólo se guarda el índice id -> posición de la última versión; las lecturas van al
+ *   fichero con una lectura posicional (la caché de páginas del SO hace el resto).
+ * - Group commit: la escritura vuelve cuando su registro está en disco, pero el fsync no se hace por
+ *   escritura. El primer hilo que espera hace un único force() que cubre todo lo escrito hasta ese
+ *   momento, y los que llegan mientras tanto esperan al siguiente; con carga, un fsync confirma muchas
+ *   escrituras a la vez.
+ * - Compactación en segundo plano cuando los registros vivos son menos de una fracción del fichero: se
+ *   copian las últimas versiones a un fichero nuevo sin bloquear las escrituras, y sólo la cola
+ *   escrita mientras tanto se copia con el cerrojo cogido, justo antes de cambiar de fichero.
+ * - Recuperación: al arrancar se carga el último checkpoint del índice (se escribe al compactar y al
+ *   parar) y se reproduce sólo la cola posterior; un registro incompleto o con CRC incorrecto marca el
+ *   final (escritura a medias en una caída) y el fichero se trunca ahí.
+ * - Borrados: además del índice se guardan los ids borrados con su fecha (de los registros DELETE), que la
+ *   compactación conserva y el checkpoint incluye, para que la sincronización incremental siga viendo los
+ *   borrados tras un reinicio. Se olvidan cuando los purga FunkoTombstonePurger (forgetTombstones).
+ * - Un hilo interrumpido en mitad de una operación cierra el FileChannel para todos
+ *   (ClosedByInterruptException): el fichero se reabre y la operación se repite (ver conCanal).
+ */
+@Slf4j
+@Component
+@Profile("log")
+public class FunkoLogStore implements FunkoStorageEngine, Closeable {
+
+    // Posición y tamaño (con cabecera) de un registro en el fichero
+    record Ubicacion(long offset, int length) {
+    }
+
+    // Fichero activo con su índice; la compactación lo sustituye entero
+    private static final class Segmento {
+        // Se sustituye si una interrupción lo cierra (ver reabrir); fichero cambia al publicar la compactación
+        volatile FileChannel channel;
+        volatile Path fichero;
+        // Cerrado a propósito (compactado o al parar): ya no se reabre
+        volatile boolean cerrado;
+        final long generation;
+        final ConcurrentSkipListMap<Long, Ubicacion> indice = new ConcurrentSkipListMap<>();
+        // Ids borrados -> fecha de borrado (tombstones)
+        final ConcurrentSkipListMap<Long, LocalDateTime> borrados = new ConcurrentSkipListMap<>();
+        // Fin de lo escrito (sólo lo cambia quien tiene el cerrojo de escritura)
+        volatile long escrito;
+
+        // Estado del group commit; fallo: no se pudo publicar la compactación y ya no hay escrituras duraderas
+        final Object sync = new Object();
+        long durable;
+        boolean syncing;
+        volatile IOException fallo;
+
+        Segmento(FileChannel channel, Path fichero, long generation) {
+            this.channel = channel;
+            this.fichero = fichero;
+            this.generation = generation;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lectura<T> {
+        T leer(Segmento segmento) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Operacion<T> {
+        T hacer(FileChannel channel) throws IOException;
+    }
+
+    // Longitud de un registro DELETE (tipo, id y fecha): los tombstones cuentan como vivos para la compactación
+    private static final int LONGITUD_DELETE = FunkoLogCodec.delete(0, LocalDateTime.now()).remaining();
+
+    private final Path path;
+    private final Path checkpointPath;
+    private final boolean fsync;
+    private final long compactionMinBytes;
+    private final double compactionLiveRatio;
+
+    private final ReentrantLock escritura = new ReentrantLock();
+    // La compactación guarda su checkpoint sin el cerrojo de escritura: que no se pise con el de close()
+    private final Object cerrojoCheckpoint = new Object();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    private final AtomicLong nextId = new AtomicLong();
+    // Bytes de registros que siguen siendo la última versión de algún Funko
+    private final AtomicLong bytesVivos = new AtomicLong();
+    private volatile Segmento segmento;
+
+    public FunkoLogStore(@Value("${funkoapi.logstore.path:./data/funkos.log}") Path path,
+                         @Value("${funkoapi.logstore.fsync:true}") boolean fsync,
+                         @Value("${funkoapi.logstore.compaction.min-bytes:1048576}") long compactionMinBytes,
+                         @Value("${funkoapi.logstore.compaction.live-ratio:0.5}") double compactionLiveRatio)
+            throws IOException {
+        this.path = path.toAbsolutePath();
+        this.checkpointPath = this.path.resolveSibling(this.path.getFileName() + ".idx");
+        this.fsync = fsync;
+        this.compactionMinBytes = compactionMinBytes;
+        this.compactionLiveRatio = compactionLiveRatio;
+        Files.createDirectories(this.path.getParent());
+        this.segmento = abrir();
+    }
+
+    // --- Lecturas ---
+
+    @Override
+    public List<Funko> getAll() {
+        return leerCon(s -> {
+            List<Funko> todos = new ArrayList<>(s.indice.size());
+            for (Ubicacion u : s.indice.values()) {
+                todos.add(leer(s, u));
+            }
+            return todos;
+        });
+    }
+
+    @Override
+    public Optional<Funko> getById(Long id) {
+        return leerCon(s -> {
+            Ubicacion u = s.indice.get(id);
+            return u != null ? Optional.of(leer(s, u)) : Optional.empty();
+        });
+    }
+
+    @Override
+    public List<Long> ids() {
+        return new ArrayList<>(segmento.indice.keySet());
+    }
+
+    // Sólo se leen las fechas de cada registro; el Funko entero, únicamente si se modificó después de "desde"
+    @Override
+    public List<Funko> findUpdatedAfter(LocalDateTime desde) {
+        return leerCon(s -> {
+            List<Funko> modificados = new ArrayList<>();
+            for (Ubicacion u : s.indice.values()) {
+                LocalDateTime updatedAt = FunkoLogCodec.updatedAt(leerCrudo(s,
+                        u.offset() + FunkoLogCodec.HEADER, FunkoLogCodec.PREFIJO_FECHAS));
+                if (updatedAt != null && updatedAt.isAfter(desde)) {
+                    modificados.add(leer(s, u));
+                }
+            }
+            return modificados;
+        });
+    }
+
+    // Rango sobre el índice ordenado: sólo se leen del fichero los registros de la página
+    @Override
+    public List<Funko> findAfter(long afterId, int limite) {
+        return leerCon(s -> {
+            List<Funko> pagina = new ArrayList<>(Math.min(limite, s.indice.size()));
+            for (Ubicacion u : s.indice.tailMap(afterId, false).values()) {
+                if (pagina.size() >= limite) {
+                    break;
+                }
+                pagina.add(leer(s, u));
+            }
+            return pagina;
+        });
+    }
+
+    // Sin índices secundarios: las búsquedas recorren las últimas versiones
+    @Override
+    public List<Funko> findByNombreContainingIgnoreCase(String nombre) {
+        String buscado = nombre.toLowerCase(Locale.ROOT);
+        return filtrar(f -> f.getNombre() != null && f.getNombre().toLowerCase(Locale.ROOT).contains(buscado));
+    }
+
+    @Override
+    public List<Funko> findByPrecioBefore(Double precio) {
+        return filtrar(f -> f.getPrecio() != null && f.getPrecio() < precio);
+    }
+
+    @Override
+    public List<Funko> findByCategoria(Categoria categoria) {
+        String nombre = categoria != null ? categoria.getNombre() : null;
+        return filtrar(f -> f.getCategoria() != null && Objects.equals(nombre, f.getCategoria().getNombre()));
+    }
+
+    @Override
+    public long count() {
+        return segmento.indice.size();
+    }
+
+    @Override
+    public Map<Long, LocalDateTime> tombstones() {
+        return Map.copyOf(segmento.borrados);
+    }
+
+    // La próxima compactación ya no los copia. Si se purgan mientras se compacta, o se arranca sin checkpoint,
+    // pueden reaparecer desde su registro DELETE: la purga siguiente los vuelve a olvidar
+    @Override
+    public void forgetTombstones(Collection<Long> ids) {
+        escritura.lock();
+        try {
+            Segmento s = segmento;
+            for (Long id : ids) {
+                if (s.borrados.remove(id) != null) {
+                    bytesVivos.addAndGet(-LONGITUD_DELETE);
+                }
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // --- Escrituras ---
+
+    @Override
+    public Funko save(Funko funko) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Funko nuevo = new Funko(null, funko.getNombre(), funko.getPrecio(), funko.getCategoria(),
+                funko.getFechaLanzamiento(), ahora, ahora);
+        nuevo.setUuid(funko.getUuid());
+        Segmento s;
+        long fin;
+        escritura.lock();
+        try {
+            nuevo.setId(nextId.incrementAndGet());
+            s = segmento;
+            fin = anadir(s, FunkoLogCodec.put(nuevo));
+        } finally {
+            escritura.unlock();
+        }
+        esperarDurable(s, fin);
+        return nuevo;
+    }
+
+    @Override
+    public Optional<Funko> update(Long id, Funko cambios) {
+        return modificar(id, actual -> {
+            actual.setNombre(cambios.getNombre());
+            actual.setPrecio(cambios.getPrecio());
+            actual.setCategoria(cambios.getCategoria());
+            actual.setFechaLanzamiento(cambios.getFechaLanzamiento());
+        });
+    }
+
+    @Override
+    public Optional<Funko> patch(Long id, Funko cambios) {
+        return modificar(id, actual -> {
+            if (cambios.getNombre() != null) {
+                actual.setNombre(cambios.getNombre());
+            }
+            if (cambios.getPrecio() != null) {
+                actual.setPrecio(cambios.getPrecio());
+            }
+            if (cambios.getCategoria() != null) {
+                actual.setCategoria(cambios.getCategoria());
+            }
+            if (cambios.getFechaLanzamiento() != null) {
+                actual.setFechaLanzamiento(cambios.getFechaLanzamiento());
+            }
+        });
+    }
+
+    @Override
+    public Optional<Funko> deleteById(Long id, LocalDateTime deletedAt) {
+        Segmento s;
+        long fin;
+        Funko borrado;
+        escritura.lock();
+        try {
+            s = segmento;
+            Ubicacion u = s.indice.get(id);
+            if (u == null) {
+                return Optional.empty();
+            }
+            borrado = leer(s, u);
+            fin = anadir(s, FunkoLogCodec.delete(id, deletedAt));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            escritura.unlock();
+        }
+        esperarDurable(s, fin);
+        return Optional.of(borrado);
+    }
+
+    private Optional<Funko> modificar(Long id, Consumer<Funko> cambios) {
+        Segmento s;
+        long fin;
+        Funko actual;
+        escritura.lock();
+        try {
+            s = segmento;
+            Ubicacion u = s.indice.get(id);
+            if (u == null) {
+                return Optional.empty();
+            }
+            actual = leer(s, u);
+            cambios.accept(actual);
+            actual.setUpdatedAt(LocalDateTime.now());
+            fin = anadir(s, FunkoLogCodec.put(actual));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            escritura.unlock();
+        }
+        esperarDurable(s, fin);
+        return Optional.of(actual);
+    }
+
+    // Escribe el registro al final y actualiza el índice. Se llama con el cerrojo de escritura
+    private long anadir(Segmento s, ByteBuffer registro) {
+        if (s.fallo != null) {
+            throw new UncheckedIOException(s.fallo);
+        }
+        long pos = s.escrito;
+        int length = registro.remaining();
+        try {
+            escribir(s, registro, pos);
+        } catch (IOException e) {
+            // escrito no avanza: la siguiente escritura pisa lo que haya quedado a medias
+            throw new UncheckedIOException(e);
+        }
+        s.escrito = pos + length;
+        ByteBuffer cuerpo = registro.position(FunkoLogCodec.HEADER).slice();
+        bytesVivos.addAndGet(aplicar(s, cuerpo, pos, length));
+        return s.escrito;
+    }
+
+    // Group commit: vuelve cuando lo escrito hasta fin está en disco
+    private void esperarDurable(Segmento s, long fin) {
+        if (!fsync) {
+            return;
+        }
+        while (true) {
+            long objetivo;
+            synchronized (s.sync) {
+                while (s.syncing && s.durable < fin && s.fallo == null) {
+                    try {
+                        s.sync.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UncheckedIOException(new InterruptedIOException("Interrumpido esperando al fsync del log"));
+                    }
+                }
+                if (s.durable >= fin) {
+                    return;
+                }
+                if (s.fallo != null) {
+                    throw new UncheckedIOException(s.fallo);
+                }
+                // Este hilo hace el fsync por todos los que han escrito hasta ahora
+                s.syncing = true;
+                objetivo = s.escrito;
+            }
+            boolean ok = false;
+            try {
+                conCanal(s, channel -> {
+                    channel.force(false);
+                    return null;
+                });
+                ok = true;
+            } catch (ClosedChannelException e) {
+                // La compactación ha cambiado de fichero: ya ha copiado y sincronizado este registro
+                if (s == segmento) {
+                    throw new UncheckedIOException(e);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                synchronized (s.sync) {
+                    if (ok) {
+                        s.durable = Math.max(s.durable, objetivo);
+                    }
+                    s.syncing = false;
+                    s.sync.notifyAll();
+                }
+            }
+        }
+    }
+
+    // --- Compactación ---
+
+    @Scheduled(fixedDelayString = "${funkoapi.logstore.compaction.interval:PT1M}")
+    public void compactIfNeeded() {
+        long total = segmento.escrito;
+        if (total >= compactionMinBytes && bytesVivos.get() < total * compactionLiveRatio) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("No se pudo compactar el log {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    public void compact() throws IOException {
+        if (!compactando.compareAndSet(false, true)) {
+            return;
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        Segmento viejo = segmento;
+        Segmento nuevo;
+        try {
+            nuevo = new Segmento(FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, READ, WRITE), tmp, viejo.generation + 1);
+        } catch (IOException e) {
+            compactando.set(false);
+            throw e;
+        }
+        // Copia privada del índice nuevo tal como queda al cambiar de fichero, para el checkpoint
+        // (el de nuevo lo tocan las escrituras en cuanto se cambia)
+        Segmento foto = new Segmento(null, tmp, nuevo.generation);
+        boolean cambiado = false;
+        try {
+            long corte = viejo.escrito;
+            ByteBuffer cabecera = FunkoLogCodec.seq(nuevo.generation, nextId.get());
+            long pos = cabecera.remaining();
+            escribir(nuevo, cabecera, 0);
+            long vivos = 0;
+
+            // 1. Últimas versiones y tombstones escritos antes del corte, sin bloquear a nadie. Lo que cambie
+            //    después (incluidos los borrados) está en la cola y se aplica encima en el paso 2
+            for (Map.Entry<Long, Ubicacion> e : viejo.indice.entrySet()) {
+                Ubicacion u = e.getValue();
+                if (u.offset() >= corte) {
+                    continue;
+                }
+                escribir(nuevo, leerCrudo(viejo, u.offset(), u.length()), pos);
+                Ubicacion copia = new Ubicacion(pos, u.length());
+                nuevo.indice.put(e.getKey(), copia);
+                foto.indice.put(e.getKey(), copia);
+                pos += u.length();
+                vivos += u.length();
+            }
+            for (Map.Entry<Long, LocalDateTime> e : viejo.borrados.entrySet()) {
+                ByteBuffer registro = FunkoLogCodec.delete(e.getKey(), e.getValue());
+                int length = registro.remaining();
+                escribir(nuevo, registro, pos);
+                nuevo.borrados.put(e.getKey(), e.getValue());
+                foto.borrados.put(e.getKey(), e.getValue());
+                pos += length;
+                vivos += length;
+            }
+            // El grueso del fsync, también sin cerrojo
+            forzar(nuevo);
+
+            // 2. La cola escrita mientras tanto, con las escrituras paradas, y cambio de segmento. Hasta que
+            //    el fichero nuevo esté en disco con su nombre definitivo (paso 3) nadie hace fsync de él:
+            //    syncing = true deja esperando a quien escriba ya en el nuevo
+            escritura.lock();
+            try {
+                for (long p = corte; p < viejo.escrito; ) {
+                    ByteBuffer cuerpo = leerRegistro(viejo, p, viejo.escrito);
+                    if (cuerpo == null) {
+                        throw new IOException("Registro corrupto en " + path + " en la posición " + p);
+                    }
+                    int length = FunkoLogCodec.HEADER + cuerpo.capacity();
+                    escribir(nuevo, leerCrudo(viejo, p, length), pos);
+                    vivos += aplicar(nuevo, cuerpo, pos, length);
+                    aplicar(foto, cuerpo, pos, length);
+                    pos += length;
+                    p += length;
+                }
+                nuevo.escrito = pos;
+                foto.escrito = pos;
+                nuevo.syncing = true;
+                segmento = nuevo;
+                bytesVivos.set(vivos);
+                cambiado = true;
+            } finally {
+                escritura.unlock();
+            }
+
+            // 3. fsync de la cola (y de lo que se haya escrito ya en el nuevo), nombre definitivo y fsync del
+            //    directorio para que el cambio de nombre sobreviva a una caída
+            long publicado = nuevo.escrito;
+            try {
+                forzar(nuevo);
+                synchronized (nuevo) {
+                    Files.move(tmp, path, ATOMIC_MOVE, REPLACE_EXISTING);
+                    nuevo.fichero = path;
+                }
+                sincronizarDirectorio(path);
+            } catch (IOException e) {
+                // Lo escrito desde el cambio sólo está en el .compact, que al arrancar no se lee: no hay
+                // escrituras duraderas hasta reiniciar (el fichero viejo sigue intacto con todo lo anterior)
+                log.error("No se pudo publicar el log compactado {}: se rechazan las escrituras", path, e);
+                for (Segmento s : List.of(nuevo, viejo)) {
+                    synchronized (s.sync) {
+                        s.fallo = e;
+                        s.syncing = false;
+                        s.sync.notifyAll();
+                    }
+                }
+                cerrar(viejo);
+                throw e;
+            }
+            synchronized (nuevo.sync) {
+                nuevo.durable = publicado;
+                nuevo.syncing = false;
+                nuevo.sync.notifyAll();
+            }
+            // Quien esperase un fsync del fichero viejo ya está cubierto por el del nuevo
+            synchronized (viejo.sync) {
+                viejo.durable = Long.MAX_VALUE;
+                viejo.sync.notifyAll();
+            }
+            cerrar(viejo);
+            guardarCheckpoint(foto);
+            log.info("Log de Funkos compactado: {} -> {} bytes", viejo.escrito, foto.escrito);
+        } finally {
+            if (!cambiado) {
+                cerrar(nuevo);
+                Files.deleteIfExists(tmp);
+            }
+            compactando.set(false);
+        }
+    }
+
+    long sizeInBytes() {
+        return segmento.escrito;
+    }
+
+    // Spring lo llama al parar (es Closeable): deja el checkpoint para arrancar sin reproducir el log
+    @Override
+    public void close() throws IOException {
+        escritura.lock();
+        try {
+            Segmento s = segmento;
+            if (s.cerrado) {
+                return;
+            }
+            forzar(s);
+            guardarCheckpoint(s);
+            cerrar(s);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // --- Apertura y recuperación ---
+
+    private Segmento abrir() throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE);
+        if (channel.size() == 0) {
+            escribirCompleto(channel, FunkoLogCodec.seq(1, 0), 0);
+            channel.force(true);
+        }
+        ByteBuffer cabecera = leerRegistro(channel, 0, channel.size());
+        if (cabecera == null || FunkoLogCodec.tipo(cabecera) != FunkoLogCodec.SEQ) {
+            channel.close();
+            throw new IOException(path + " no es un log de Funkos válido");
+        }
+        Segmento s = new Segmento(channel, path, FunkoLogCodec.generation(cabecera));
+        nextId.set(FunkoLogCodec.nextId(cabecera));
+
+        long size = channel.size();
+        long desde = cargarCheckpoint(s, size);
+        if (desde < 0) {
+            desde = FunkoLogCodec.HEADER + cabecera.capacity();
+        }
+        // Cola posterior al checkpoint (o todo el fichero si no lo hay)
+        long pos = desde;
+        int reproducidos = 0;
+        while (pos < size) {
+            ByteBuffer cuerpo = leerRegistro(channel, pos, size);
+            if (cuerpo == null) {
+                break;
+            }
+            int length = FunkoLogCodec.HEADER + cuerpo.capacity();
+            aplicar(s, cuerpo, pos, length);
+            pos += length;
+            reproducidos++;
+        }
+        if (pos < size) {
+            log.warn("Log de Funkos {}: registro incompleto o corrupto en la posición {}, se descartan {} bytes",
+                    path, pos, size - pos);
+            channel.truncate(pos);
+            channel.force(true);
+        }
+        s.escrito = pos;
+        s.durable = pos;
+        bytesVivos.set(sumarVivos(s));
+        log.info("Log de Funkos {} abierto: {} Funkos y {} borrados, {} registros reproducidos desde la posición {}",
+                path, s.indice.size(), s.borrados.size(), reproducidos, desde);
+        return s;
+    }
+
+    // Aplica un registro al índice y a los borrados (al escribir, al reproducir la cola y al compactar) y
+    // devuelve cuánto cambian los bytes vivos. Los ids de los borrados también cuentan para no reutilizarlos
+    private long aplicar(Segmento s, ByteBuffer cuerpo, long pos, int length) {
+        long id = FunkoLogCodec.id(cuerpo);
+        nextId.accumulateAndGet(id, Math::max);
+        byte tipo = FunkoLogCodec.tipo(cuerpo);
+        if (tipo == FunkoLogCodec.PUT) {
+            return length - longitud(s.indice.put(id, new Ubicacion(pos, length)));
+        }
+        if (tipo == FunkoLogCodec.DELETE) {
+            long quitado = longitud(s.indice.remove(id));
+            // Un DELETE repetido (la cola de una compactación) no suma otro tombstone
+            return (s.borrados.put(id, FunkoLogCodec.deletedAt(cuerpo)) == null ? length : 0) - quitado;
+        }
+        return 0;
+    }
+
+    private static long longitud(Ubicacion u) {
+        return u != null ? u.length() : 0;
+    }
+
+    private static long sumarVivos(Segmento s) {
+        long total = (long) s.borrados.size() * LONGITUD_DELETE;
+        for (Ubicacion u : s.indice.values()) {
+            total += u.length();
+        }
+        return total;
+    }
+
+    // Checkpoint: [generación][fin del log][siguiente id][n][(id, offset, longitud) x n]
+    //             [m][(id borrado, segundos, nanos) x m][CRC32]
+    private void guardarCheckpoint(Segmento s) throws IOException {
+        synchronized (cerrojoCheckpoint) {
+            escribirCheckpoint(s);
+        }
+    }
+
+    private void escribirCheckpoint(Segmento s) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(36 + s.indice.size() * 20 + s.borrados.size() * 20);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(s.generation);
+        out.writeLong(s.escrito);
+        out.writeLong(nextId.get());
+        out.writeInt(s.indice.size());
+        for (Map.Entry<Long, Ubicacion> e : s.indice.entrySet()) {
+            out.writeLong(e.getKey());
+            out.writeLong(e.getValue().offset());
+            out.writeInt(e.getValue().length());
+        }
+        out.writeInt(s.borrados.size());
+        for (Map.Entry<Long, LocalDateTime> e : s.borrados.entrySet()) {
+            out.writeLong(e.getKey());
+            out.writeLong(e.getValue().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(e.getValue().getNano());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+
+        Path tmp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            escribirCompleto(channel, ByteBuffer.wrap(bytes.toByteArray()), 0);
+            channel.force(true);
+        }
+        Files.move(tmp, checkpointPath, ATOMIC_MOVE, REPLACE_EXISTING);
+        sincronizarDirectorio(checkpointPath);
+    }
+
+    // Devuelve dónde empieza la cola a reproducir, o -1 si no hay checkpoint válido para este fichero
+    private long cargarCheckpoint(Segmento s, long size) {
+        if (!Files.isRegularFile(checkpointPath)) {
+            return -1;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(checkpointPath));
+            CRC32 crc = new CRC32();
+            crc.update(in.array(), 0, in.capacity() - Long.BYTES);
+            if (crc.getValue() != in.getLong(in.capacity() - Long.BYTES)) {
+                log.warn("Checkpoint {} corrupto, se reproduce el log completo", checkpointPath);
+                return -1;
+            }
+            long generation = in.getLong();
+            long fin = in.getLong();
+            long siguiente = in.getLong();
+            // De otra generación (caída entre compactar y guardarlo) o de un fichero más largo: no vale
+            if (generation != s.generation || fin > size) {
+                return -1;
+            }
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                s.indice.put(in.getLong(), new Ubicacion(in.getLong(), in.getInt()));
+            }
+            int m = in.getInt();
+            for (int i = 0; i < m; i++) {
+                s.borrados.put(in.getLong(), LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+            }
+            // Sólo queda el CRC: si no, es de otro formato (sin borrados)
+            if (in.remaining() != Long.BYTES) {
+                throw new IOException("formato de checkpoint desconocido");
+            }
+            nextId.accumulateAndGet(siguiente, Math::max);
+            return fin;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo leer el checkpoint {}: {}", checkpointPath, e.getMessage());
+            s.indice.clear();
+            s.borrados.clear();
+            return -1;
+        }
+    }
+
+    // --- E/S ---
+
+    // Reintenta si la compactación cierra el fichero en mitad de la lectura
+    private <T> T leerCon(Lectura<T> lectura) {
+        while (true) {
+            Segmento s = segmento;
+            try {
+                return lectura.leer(s);
+            } catch (ClosedChannelException e) {
+                if (s == segmento) {
+                    throw new UncheckedIOException(e);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Hace una operación sobre el fichero de un segmento. FileChannel es interrumpible: si el hilo está
+     * interrumpido (o lo interrumpen durante la operación) el canal se cierra para todos. Aquí la marca de
+     * interrupción se aparta mientras dura la operación y se restaura al final, y si el canal aparece
+     * cerrado sin que nadie lo haya cerrado a propósito se reabre y se repite (todas son posicionales,
+     * repetirlas no cambia el resultado). Si el segmento se cerró a propósito, ClosedChannelException.
+     */
+    private static <T> T conCanal(Segmento s, Operacion<T> operacion) throws IOException {
+        boolean interrumpido = Thread.interrupted();
+        try {
+            while (true) {
+                FileChannel channel = s.channel;
+                try {
+                    return operacion.hacer(channel);
+                } catch (ClosedChannelException e) {
+                    // ClosedByInterruptException si era este hilo; AsynchronousCloseException si era otro
+                    interrumpido |= Thread.interrupted();
+                    if (!reabrir(s, channel)) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Reabre el fichero del segmento si el canal visto sigue siendo el suyo (otro hilo puede haberlo hecho ya)
+    private static boolean reabrir(Segmento s, FileChannel visto) throws IOException {
+        synchronized (s) {
+            if (s.cerrado) {
+                return false;
+            }
+            if (s.channel == visto && !visto.isOpen()) {
+                log.warn("Canal del log de Funkos {} cerrado por una interrupción, se reabre", s.fichero);
+                s.channel = FileChannel.open(s.fichero, READ, WRITE);
+            }
+            return true;
+        }
+    }
+
+    private static void cerrar(Segmento s) throws IOException {
+        synchronized (s) {
+            s.cerrado = true;
+            s.channel.close();
+        }
+    }
+
+    private static void forzar(Segmento s) throws IOException {
+        conCanal(s, channel -> {
+            channel.force(true);
+            return null;
+        });
+    }
+
+    private static void escribir(Segmento s, ByteBuffer registro, long pos) throws IOException {
+        conCanal(s, channel -> escribirCompleto(channel, registro.duplicate(), pos));
+    }
+
+    // fsync del directorio que contiene el fichero: sin él, un cambio de nombre puede perderse en una caída
+    private void sincronizarDirectorio(Path fichero) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        try (FileChannel directorio = FileChannel.open(fichero.getParent(), READ)) {
+            directorio.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (Windows) no permiten abrir un directorio; ahí el cambio de nombre ya es duradero
+            if (!Files.isDirectory(fichero.getParent())) {
+                throw e;
+            }
+            log.debug("No se puede hacer fsync del directorio {}: {}", fichero.getParent(), e.getMessage());
+        }
+    }
+
+    private List<Funko> filtrar(Predicate<Funko> filtro) {
+        return getAll().stream().filter(filtro).toList();
+    }
+
+    private static Funko leer(Segmento s, Ubicacion u) throws IOException {
+        return conCanal(s, channel -> {
+            ByteBuffer cuerpo = ByteBuffer.allocate(u.length() - FunkoLogCodec.HEADER);
+            leerCompleto(channel, cuerpo, u.offset() + FunkoLogCodec.HEADER);
+            return FunkoLogCodec.funko(cuerpo.flip());
+        });
+    }
+
+    private static ByteBuffer leerCrudo(Segmento s, long offset, int length) throws IOException {
+        return conCanal(s, channel -> {
+            ByteBuffer registro = ByteBuffer.allocate(length);
+            leerCompleto(channel, registro, offset);
+            return registro.flip();
+        });
+    }
+
+    private static ByteBuffer leerRegistro(Segmento s, long pos, long size) throws IOException {
+        return conCanal(s, channel -> leerRegistro(channel, pos, size));
+    }
+
+    // Cuerpo del registro en pos, o null si está incompleto o no cuadra el CRC
+    private static ByteBuffer leerRegistro(FileChannel channel, long pos, long size) throws IOException {
+        if (size - pos < FunkoLogCodec.HEADER) {
+            return null;
+        }
+        ByteBuffer cabecera = ByteBuffer.allocate(FunkoLogCodec.HEADER);
+        leerCompleto(channel, cabecera, pos);
+        int length = cabecera.getInt(0);
+        if (length <= 0 || length > size - pos - FunkoLogCodec.HEADER) {
+            return null;
+        }
+        ByteBuffer cuerpo = ByteBuffer.allocate(length);
+        leerCompleto(channel, cuerpo, pos + FunkoLogCodec.HEADER);
+        cuerpo.flip();
+        return FunkoLogCodec.crc(cuerpo) == cabecera.getInt(4) ? cuerpo : null;
+    }
+
+    private static void leerCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        long inicio = pos - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, inicio + buffer.position()) < 0) {
+                throw new EOFException("Fin de fichero inesperado en la posición " + (inicio + buffer.position()));
+            }
+        }
+    }
+
+    private static Void escribirCompleto(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        long inicio = pos - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, inicio + buffer.position());
+        }
+        return null;
+    }
+}
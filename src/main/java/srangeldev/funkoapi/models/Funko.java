@@ -4,8 +4,12 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import srangeldev.funkoapi.models.enums.Categoria;
 
 import java.time.LocalDate;
@@ -15,10 +19,29 @@ import java.util.UUID;
 /**
  * Entidad de dominio simple para representar un Funko.
  * Usamos JPA para almacenarlo en BBDD
+ * Las fechas de alta y modificación las rellena la auditoría de Spring Data (ver JpaConfig);
+ * updatedAt está indexado porque la sincronización incremental filtra por él.
+ *
+ * El borrado es lógico: se marca deleted/deletedAt y la fila queda como tombstone hasta que la purga
+ * en segundo plano la elimina (ver FunkoTombstonePurger). @SQLRestriction hace que todas las consultas
+ * JPA (incluidas las derivadas del repositorio) ignoren los borrados; los índices empiezan por deleted
+ * para que ese predicado no obligue a recorrer la tabla. @SQLDelete convierte también cualquier
+ * delete()/deleteById() del repositorio en borrado lógico.
+ *
+ * La versión (@Version) protege el borrado lógico de una actualización concurrente: sin ella, un PUT que
+ * hubiera leído la fila antes del borrado la reescribiría con deleted = false al confirmar. Con ella,
+ * la segunda escritura no encuentra su versión y falla con un conflicto (409).
  */
 @Data
 @Entity
-@Table(name = "funkos")
+@EntityListeners(AuditingEntityListener.class)
+@SQLDelete(sql = "update funkos set deleted = true, deleted_at = current_timestamp, version = version + 1 "
+        + "where id = ? and version = ?")
+@SQLRestriction("deleted = false")
+@Table(name = "funkos", indexes = {
+        @Index(name = "idx_funkos_deleted_updated_at", columnList = "deleted, updated_at"),
+        @Index(name = "idx_funkos_deleted_deleted_at", columnList = "deleted, deleted_at")
+})
 public class Funko {
 
     @Id
@@ -40,12 +63,24 @@ public class Funko {
 
     private LocalDate fechaLanzamiento;
 
+    // Control de concurrencia optimista
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     // Atributos internos (metadatos)
     @CreatedDate
     private LocalDateTime createdAt;
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Borrado lógico
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean deleted;
+    private LocalDateTime deletedAt;
+
     public Funko() {}
 
     public Funko(Long id, String nombre, Double precio, Categoria categoria, LocalDate fechaLanzamiento,
@@ -0,0 +1,48 @@
+package srangeldev.funkoapi.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import srangeldev.funkoapi.models.enums.TipoCambio;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la tabla outbox del feed de cambios: una por cada alta, modificación o borrado de un Funko.
+ *
+ * Se escribe en la misma transacción que el cambio, así que el feed nunca publica algo que no se
+ * haya confirmado. El payload es el evento ya serializado en JSON, tal y como se envía por SSE,
+ * así que reanudar desde la BBDD no necesita volver a serializar nada.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "funko_cambios")
+public class FunkoCambio {
+
+    // Secuencia del feed: ChangeFeedService la toma de funko_cambios_seq antes de guardar la fila
+    @Id
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TipoCambio tipo;
+
+    @Column(nullable = false)
+    private Long funkoId;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    public FunkoCambio(Long seq, TipoCambio tipo, Long funkoId, LocalDateTime fecha, String payload) {
+        this.seq = seq;
+        this.tipo = tipo;
+        this.funkoId = funkoId;
+        this.fecha = fecha;
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,57 @@
+package srangeldev.funkoapi.models.enums;
+
+import srangeldev.funkoapi.models.Funko;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Campos de un Funko que se pueden pedir con ?fields= (sparse fieldsets).
+ * El nombre es a la vez la propiedad JSON de FunkoResponseDto y el atributo JPA de Funko.
+ */
+public enum CampoFunko {
+    ID("id", Funko::getId),
+    NOMBRE("nombre", Funko::getNombre),
+    PRECIO("precio", Funko::getPrecio),
+    CATEGORIA("categoria", Funko::getCategoria),
+    FECHA_LANZAMIENTO("fechaLanzamiento", Funko::getFechaLanzamiento),
+    CREATED_AT("createdAt", Funko::getCreatedAt),
+    UPDATED_AT("updatedAt", Funko::getUpdatedAt);
+
+    private final String nombre;
+    private final Function<Funko, Object> valor;
+
+    CampoFunko(String nombre, Function<Funko, Object> valor) {
+        this.nombre = nombre;
+        this.valor = valor;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Object valor(Funko funko) {
+        return valor.apply(funko);
+    }
+
+    // Campo por su nombre JSON, o null si no existe
+    public static CampoFunko of(String nombre) {
+        for (CampoFunko campo : values()) {
+            if (campo.nombre.equals(nombre)) {
+                return campo;
+            }
+        }
+        return null;
+    }
+
+    // Sólo los campos pedidos de un Funko ya cargado, en el orden de FunkoResponseDto (el mapa es modificable)
+    public static Map<String, Object> recortar(Funko funko, Set<CampoFunko> campos) {
+        Map<String, Object> recortado = new LinkedHashMap<>();
+        for (CampoFunko campo : campos) {
+            recortado.put(campo.nombre, campo.valor(funko));
+        }
+        return recortado;
+    }
+}
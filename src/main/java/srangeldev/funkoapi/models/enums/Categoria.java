@@ -1,5 +1,6 @@
 package srangeldev.funkoapi.models.enums;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -23,6 +24,8 @@ public class Categoria {
     private String nombre;
 
     //Relacion bidireccional ya que una categoria puede tener muchos Funkos
+    // Fuera del JSON: es perezosa y, sin open-in-view, no se puede cargar al serializar la respuesta
+    @JsonIgnore
     @OneToMany(mappedBy = "categoria")
     private final List<Funko> funkos;
 
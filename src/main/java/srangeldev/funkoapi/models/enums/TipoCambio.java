@@ -0,0 +1,11 @@
+package srangeldev.funkoapi.models.enums;
+
+/**
+ * Tipos de cambio que se publican en el feed de cambios del catálogo.
+ */
+public enum TipoCambio {
+    CREATE,
+    UPDATE,
+    PATCH,
+    DELETE
+}
@@ -0,0 +1,107 @@
+package srangeldev.funkoapi.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por cliente implementado como GCRA (generic cell rate algorithm).
+ *
+ * En lugar de guardar tokens y la hora del último relleno, cada clave guarda un único long:
+ * el "instante teórico de llegada" (TAT) en nanos. Admitir una petición es un compareAndSet sobre
+ * ese long, sin cerrojos ni objetos nuevos por petición (salvo la primera de cada clave).
+ *
+ * - rate: peticiones por segundo sostenidas; burst: cuántas se admiten seguidas con el cubo lleno.
+ * - Una clave cuyo TAT ya ha pasado tiene el cubo lleno, igual que una clave nueva: {@link #evictIdle()}
+ *   las borra sin cambiar el comportamiento, así que la memoria depende de los clientes activos.
+ * - Si se llega a maxKeys, se borran en el momento las claves inactivas (como mucho una vez por segundo).
+ *   Si aun así no hay sitio, la clave nueva se rechaza, pero nunca comparte cubo con otros clientes.
+ *   Una clave sólo ocupa sitio mientras tiene el cubo por debajo de lleno, así que para llenar la
+ *   tabla hay que mantener a la vez maxKeys clientes al ritmo del límite.
+ */
+public class GcraRateLimiter {
+
+    private static final long LIMPIEZA_MINIMA_NANOS = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // Última limpieza forzada por llegar a maxKeys
+    private final AtomicLong ultimaLimpieza;
+
+    public GcraRateLimiter(double ratePerSecond, int burst, int maxKeys, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate debe ser > 0 y burst >= 1");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.maxKeys = maxKeys;
+        this.clock = nanoClock;
+        this.ultimaLimpieza = new AtomicLong(nanoClock.getAsLong() - LIMPIEZA_MINIMA_NANOS);
+    }
+
+    public GcraRateLimiter(double ratePerSecond, int burst, int maxKeys) {
+        this(ratePerSecond, burst, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * Intenta consumir un token de la clave.
+     *
+     * @return 0 si se admite; si no, los nanos que faltan para que se admita la siguiente
+     *         (con la tabla llena, un intervalo de emisión)
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = bucket(key);
+        if (tat == null) {
+            return emissionIntervalNanos;
+        }
+        while (true) {
+            long now = clock.getAsLong();
+            long actual = tat.get();
+            long nuevo = Math.max(actual, now) + emissionIntervalNanos;
+            long exceso = nuevo - now - burstToleranceNanos;
+            if (exceso > 0) {
+                return exceso;
+            }
+            if (tat.compareAndSet(actual, nuevo)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Borra las claves con el cubo ya lleno (inactivas). Devuelve cuántas se han borrado.
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int antes = buckets.size();
+        buckets.values().removeIf(tat -> tat.get() - now <= 0);
+        return antes - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Cubo de la clave, o null si es nueva y no cabe
+    private AtomicLong bucket(String key) {
+        AtomicLong tat = buckets.get(key);
+        if (tat != null) {
+            return tat;
+        }
+        if (buckets.size() >= maxKeys) {
+            long now = clock.getAsLong();
+            long anterior = ultimaLimpieza.get();
+            if (now - anterior >= LIMPIEZA_MINIMA_NANOS && ultimaLimpieza.compareAndSet(anterior, now)) {
+                evictIdle();
+            }
+            if (buckets.size() >= maxKeys) {
+                return null;
+            }
+        }
+        // Cubo lleno al crearse: TAT en el pasado
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(clock.getAsLong() - burstToleranceNanos));
+    }
+}
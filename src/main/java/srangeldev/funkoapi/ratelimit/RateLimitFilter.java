@@ -0,0 +1,129 @@
+package srangeldev.funkoapi.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import srangeldev.funkoapi.exceptions.ProblemResponses;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite de peticiones por cliente sobre el API de Funkos.
+ *
+ * El cliente es la cabecera X-API-Key sólo si es una de las claves configuradas (funkoapi.ratelimit.api-keys);
+ * si no, la IP. Así una clave inventada no da un cubo nuevo, y cambiar de clave en cada petición no salta
+ * el límite ni llena la tabla de claves. Además cada IP puede usar como mucho max-keys-per-ip claves
+ * distintas; a partir de ahí cuenta como su IP.
+ *
+ * La IP es request.getRemoteAddr(). Detrás del balanceador, Tomcat la toma de X-Forwarded-For, pero sólo
+ * si la conexión llega de un proxy de confianza (server.forward-headers-strategy=native y
+ * server.tomcat.remoteip.internal-proxies). Las IPv6 cuentan por su /64: a un cliente se le suele dar la
+ * red entera, y si no se agrupara podría estrenar dirección en cada petición.
+ *
+ * Las lecturas (GET/HEAD) y las escrituras
+ * (create/update/patch/delete) tienen cada una su propio límite. Al superarlo se responde 429 con
+ * Retry-After (en segundos) sin llegar al controlador.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_API_KEY = "X-API-Key";
+
+    private final GcraRateLimiter reads;
+    private final GcraRateLimiter writes;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+    private final Set<String> apiKeys;
+    private final int maxKeysPerIp;
+    // Claves distintas usadas desde cada IP (se olvidan tras un rato sin uso)
+    private final Cache<String, Set<String>> clavesPorIp;
+
+    public RateLimitFilter(GcraRateLimiter reads, GcraRateLimiter writes, Set<String> apiKeys, int maxKeysPerIp,
+                           long maxIps, MeterRegistry registry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.maxKeysPerIp = maxKeysPerIp;
+        this.clavesPorIp = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(maxIps)
+                .build();
+        this.readsRejected = Counter.builder("funko.ratelimit.rejected").tag("class", "read").register(registry);
+        this.writesRejected = Counter.builder("funko.ratelimit.rejected").tag("class", "write").register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean lectura = esLectura(request.getMethod());
+        long esperaNanos = (lectura ? reads : writes).tryAcquire(clientKey(request));
+        if (esperaNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        (lectura ? readsRejected : writesRejected).increment();
+        // Retry-After va en segundos enteros: redondeamos hacia arriba
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999L));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        ProblemResponses.write(response, ProblemResponses.tooManyRequests());
+    }
+
+    // Las claves inactivas tienen el cubo lleno: borrarlas no cambia nada y acota la memoria
+    @Scheduled(fixedDelayString = "${funkoapi.ratelimit.idle-sweep:PT1M}")
+    public int evictIdle() {
+        return reads.evictIdle() + writes.evictIdle();
+    }
+
+    public static boolean esLectura(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    // Identidad del cliente: la API key si es válida y la IP no ha superado su cupo de claves; si no, la IP
+    String clientKey(HttpServletRequest request) {
+        String ip = red(request.getRemoteAddr());
+        String apiKey = request.getHeader(HEADER_API_KEY);
+        if (apiKey != null && apiKeys.contains(apiKey) && dentroDelCupo(ip, apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + ip;
+    }
+
+    // La IPv4 tal cual; de una IPv6, su prefijo /64
+    static String red(String ip) {
+        if (ip == null || ip.indexOf(':') < 0) {
+            return ip;
+        }
+        try {
+            // Con un literal no se resuelve nada por DNS; una IPv4 mapeada sale como Inet4Address
+            byte[] bytes = InetAddress.getByName(ip).getAddress();
+            if (bytes.length != 16) {
+                return InetAddress.getByAddress(bytes).getHostAddress();
+            }
+            StringBuilder prefijo = new StringBuilder(24);
+            for (int i = 0; i < 8; i += 2) {
+                prefijo.append(Integer.toHexString(((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff))).append(':');
+            }
+            return prefijo.append(":/64").toString();
+        } catch (UnknownHostException e) {
+            return ip;
+        }
+    }
+
+    private boolean dentroDelCupo(String ip, String apiKey) {
+        Set<String> claves = clavesPorIp.get(ip, k -> ConcurrentHashMap.newKeySet());
+        return claves.contains(apiKey) || (claves.size() < maxKeysPerIp && claves.add(apiKey));
+    }
+}
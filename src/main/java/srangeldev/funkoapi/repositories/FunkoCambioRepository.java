@@ -0,0 +1,39 @@
+package srangeldev.funkoapi.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.funkoapi.models.FunkoCambio;
+
+import java.util.List;
+
+/**
+ * Repositorio de la tabla outbox del feed de cambios.
+ *
+ * Las lecturas van siempre al primario (@Transactional sin readOnly, ver ReadWriteRoutingDataSource):
+ * con una réplica retrasada, una reanudación tomaría por huecos eventos que ya existen y la versión del
+ * catálogo se quedaría atrás.
+ */
+@Repository
+public interface FunkoCambioRepository extends JpaRepository<FunkoCambio, Long> {
+
+    // Página de cambios posteriores a una secuencia, en orden (para reanudar el feed)
+    @Transactional
+    List<FunkoCambio> findTop500BySeqGreaterThanOrderBySeqAsc(Long seq);
+
+    @Transactional
+    @Query("select coalesce(max(c.seq), 0) from FunkoCambio c")
+    long findMaxSeq();
+
+    // Siguiente número de la secuencia del feed: lo da la BBDD, así que no se repite entre nodos
+    @Transactional
+    @Query(value = "select next value for funko_cambios_seq", nativeQuery = true)
+    long nextSeq();
+
+    // Cambios confirmados por todos los nodos (la outbox no se purga): sube con cada commit, aunque llegue
+    // tarde una secuencia menor que la mayor ya guardada
+    @Transactional
+    @Query("select count(c) from FunkoCambio c")
+    long countCambios();
+}
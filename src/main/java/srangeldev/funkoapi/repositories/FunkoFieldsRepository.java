@@ -0,0 +1,21 @@
+package srangeldev.funkoapi.repositories;
+
+import srangeldev.funkoapi.models.enums.CampoFunko;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Consultas con sólo algunos campos del Funko (?fields=). Forma parte de FunkoRepository y de FunkoStore;
+ * con JPA la implementa FunkoFieldsRepositoryFragment, que selecciona únicamente esas columnas.
+ * Cada resultado es un mapa campo JSON -> valor con los campos en el orden de CampoFunko.
+ */
+public interface FunkoFieldsRepository {
+
+    // Una página en orden de id, a partir del primer id mayor que "despues" (keyset)
+    List<Map<String, Object>> findFieldsAfter(Set<CampoFunko> campos, long despues, int limite);
+
+    Optional<Map<String, Object>> findFieldsById(Long id, Set<CampoFunko> campos);
+}
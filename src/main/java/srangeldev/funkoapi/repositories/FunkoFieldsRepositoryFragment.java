@@ -0,0 +1,102 @@
+package srangeldev.funkoapi.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementación JPA de FunkoFieldsRepository (Spring Data la encuentra por el sufijo "Fragment", ver JpaConfig).
+ *
+ * Construye una consulta Criteria de tuplas con sólo las columnas pedidas: el join con categorias se
+ * hace únicamente si se pide la categoría, y no se carga ninguna entidad (nada en el contexto de
+ * persistencia). @SQLRestriction de Funko se aplica igual que en el resto de consultas JPA.
+ * Cada llamada es una transacción corta de sólo lectura: el listado se pide por páginas.
+ */
+public class FunkoFieldsRepositoryFragment implements FunkoFieldsRepository {
+
+    // Alias de las columnas de la categoría (el resto de campos usan su propio nombre)
+    private static final String CATEGORIA_ID = "categoriaId";
+    private static final String CATEGORIA_NOMBRE = "categoriaNombre";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsAfter(Set<CampoFunko> campos, long despues, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Funko> funko = query.from(Funko.class);
+        query.multiselect(columnas(funko, campos))
+                .where(cb.greaterThan(funko.<Long>get("id"), despues))
+                .orderBy(cb.asc(funko.get("id")));
+        return filas(entityManager.createQuery(query).setMaxResults(limite).getResultList(), campos);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsById(Long id, Set<CampoFunko> campos) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Funko> funko = query.from(Funko.class);
+        query.multiselect(columnas(funko, campos)).where(cb.equal(funko.get("id"), id));
+        return filas(entityManager.createQuery(query).getResultList(), campos).stream().findFirst();
+    }
+
+    // Sólo las columnas pedidas, cada una con el nombre del campo como alias (la categoría, id y nombre)
+    private static List<Selection<?>> columnas(Root<Funko> funko, Set<CampoFunko> campos) {
+        List<Selection<?>> columnas = new ArrayList<>();
+        for (CampoFunko campo : campos) {
+            if (campo == CampoFunko.CATEGORIA) {
+                Join<Funko, Categoria> categoria = funko.join("categoria", JoinType.LEFT);
+                columnas.add(categoria.get("id").alias(CATEGORIA_ID));
+                columnas.add(categoria.get("nombre").alias(CATEGORIA_NOMBRE));
+            } else {
+                columnas.add(funko.get(campo.getNombre()).alias(campo.getNombre()));
+            }
+        }
+        return columnas;
+    }
+
+    private static List<Map<String, Object>> filas(List<Tuple> tuplas, Set<CampoFunko> campos) {
+        List<Map<String, Object>> resultado = new ArrayList<>(tuplas.size());
+        for (Tuple tupla : tuplas) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (CampoFunko campo : campos) {
+                fila.put(campo.getNombre(), campo == CampoFunko.CATEGORIA
+                        ? categoria(tupla.get(CATEGORIA_ID, Long.class), tupla.get(CATEGORIA_NOMBRE, String.class))
+                        : tupla.get(campo.getNombre()));
+            }
+            resultado.add(fila);
+        }
+        return resultado;
+    }
+
+    // La categoría como objeto normal (no gestionado), igual que en la proyección de FunkoResponseDto
+    private static Categoria categoria(Long id, String nombre) {
+        if (id == null) {
+            return null;
+        }
+        Categoria categoria = new Categoria();
+        categoria.setId(id);
+        categoria.setNombre(nombre);
+        return categoria;
+    }
+}
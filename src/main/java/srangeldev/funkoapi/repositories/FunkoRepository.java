@@ -1,20 +1,28 @@
 package srangeldev.funkoapi.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
 import srangeldev.funkoapi.models.Funko;
 import srangeldev.funkoapi.models.enums.Categoria;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
- * Capa de repositorio (en memoria) por debajo del servicio.
- * Define las operaciones CRUD que el servicio utilizará.
+ * Repositorio de Spring Data de Funkos. El servicio no lo usa directamente sino a través de
+ * FunkoStore (JpaFunkoStore), que sólo expone las operaciones que necesita.
+ * Las consultas con sólo algunos campos (?fields=) vienen de FunkoFieldsRepository.
  */
 @Repository
-public interface FunkoRepository extends JpaRepository<Funko, Long> {
+public interface FunkoRepository extends JpaRepository<Funko, Long>, FunkoFieldsRepository {
     List<Funko> findByNombreContainingIgnoreCase(String nombre);
 
     List<Funko> findByPrecioBefore(Double precioBefore);
@@ -22,4 +30,35 @@ public interface FunkoRepository extends JpaRepository<Funko, Long> {
     List<Funko> findByCategoria(Categoria categoria);
 
     List<Funko> findByUuid(UUID uuid);
+
+    // Una página del listado directamente como DTOs (sin entidades en el contexto de persistencia ni copias
+    // para dirty checking), en orden de id y empezando después de un id (keyset): el listado se sirve
+    // por páginas y cada una va en su propia transacción corta, sin retener la conexión mientras se escribe
+    @Transactional(readOnly = true)
+    @Query("select new srangeldev.funkoapi.dto.FunkoResponseDto(f.id, f.nombre, f.precio, c.id, c.nombre, "
+            + "f.fechaLanzamiento, f.createdAt, f.updatedAt) from Funko f left join f.categoria c "
+            + "where f.id > :despues order by f.id")
+    List<FunkoResponseDto> findResponsesAfter(@Param("despues") long despues, Pageable pagina);
+
+    // Sólo los ids, para construir el filtro de ids existentes sin cargar entidades
+    @Query("select f.id from Funko f")
+    List<Long> findAllIds();
+
+    // Modificados (o creados) después de una fecha, para la sincronización incremental (usa idx_funkos_updated_at)
+    List<Funko> findByUpdatedAtAfterOrderByUpdatedAtAsc(LocalDateTime desde);
+
+    // Tombstones: las consultas nativas no aplican el @SQLRestriction de la entidad, así que pueden ver los borrados
+
+    // Ids borrados después de una fecha (para la sincronización incremental)
+    @Query(value = "select id from funkos where deleted = true and deleted_at > :desde", nativeQuery = true)
+    List<Long> findDeletedIdsSince(@Param("desde") LocalDateTime desde);
+
+    // Lote de tombstones anteriores a una fecha, los más antiguos primero (para la purga)
+    @Query(value = "select id from funkos where deleted = true and deleted_at < :antesDe order by deleted_at limit :limite",
+            nativeQuery = true)
+    List<Long> findTombstoneIds(@Param("antesDe") LocalDateTime antesDe, @Param("limite") int limite);
+
+    @Modifying
+    @Query(value = "delete from funkos where deleted = true and id in (:ids)", nativeQuery = true)
+    int purgeTombstones(@Param("ids") List<Long> ids);
 }
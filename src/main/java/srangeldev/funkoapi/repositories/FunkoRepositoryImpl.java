@@ -0,0 +1,305 @@
+package srangeldev.funkoapi.repositories;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Almacenamiento de Funkos en memoria (perfil "memory"), sin BBDD por debajo.
+ *
+ * - Los Funkos van en un ConcurrentSkipListMap ordenado por id, así getAll() sale ya ordenado.
+ * - Los ids salen de un AtomicLong y no se reutilizan aunque se borre el Funko.
+ * - Índices secundarios por nombre (en minúsculas), precio y categoría para las búsquedas del repositorio.
+ *
+ * Las lecturas no bloquean. Las escrituras se serializan con un cerrojo para que el mapa principal y
+ * los índices cambien juntos; como una lectura puede cruzarse con una escritura a medias, los candidatos
+ * que devuelve un índice se vuelven a comprobar contra el valor actual del mapa principal.
+ */
+@Component
+@Profile("memory")
+public class FunkoRepositoryImpl implements FunkoStorageEngine {
+
+    private final ConcurrentSkipListMap<Long, Funko> funkos = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    // Índices secundarios: valor -> ids
+    private final ConcurrentSkipListMap<String, Set<Long>> porNombre = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Double, Set<Long>> porPrecio = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Set<Long>> porCategoria = new ConcurrentHashMap<>();
+
+    // Precarga de datos de ejemplo (protected para que los tests del paquete puedan activarla)
+    @Value("${funkoapi.isForTest:false}")
+    protected boolean isForTest;
+
+    @PostConstruct
+    public void init() {
+        escritura.lock();
+        try {
+            funkos.clear();
+            porNombre.clear();
+            porPrecio.clear();
+            porCategoria.clear();
+            nextId.set(0);
+            if (isForTest) {
+                save(new Funko(null, "Iron Man", 14.99, categoria("MARVEL"), LocalDate.of(2018, 4, 25), null, null));
+                save(new Funko(null, "Darth Vader", 15.99, categoria("STAR_WARS"), LocalDate.of(2017, 12, 15), null, null));
+                save(new Funko(null, "Goku", 12.99, categoria("ANIME"), LocalDate.of(2019, 6, 1), null, null));
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    @Override
+    public List<Funko> getAll() {
+        List<Funko> todos = new ArrayList<>(funkos.size());
+        for (Funko funko : funkos.values()) {
+            todos.add(copia(funko));
+        }
+        return todos;
+    }
+
+    @Override
+    public Optional<Funko> getById(Long id) {
+        Funko funko = funkos.get(id);
+        return funko != null ? Optional.of(copia(funko)) : Optional.empty();
+    }
+
+    @Override
+    public List<Long> ids() {
+        return new ArrayList<>(funkos.keySet());
+    }
+
+    @Override
+    public List<Funko> findUpdatedAfter(LocalDateTime desde) {
+        List<Funko> modificados = new ArrayList<>();
+        for (Funko funko : funkos.values()) {
+            if (funko.getUpdatedAt() != null && funko.getUpdatedAt().isAfter(desde)) {
+                modificados.add(copia(funko));
+            }
+        }
+        return modificados;
+    }
+
+    @Override
+    public List<Funko> findAfter(long afterId, int limite) {
+        List<Funko> pagina = new ArrayList<>(Math.min(limite, funkos.size()));
+        for (Funko funko : funkos.tailMap(afterId, false).values()) {
+            if (pagina.size() >= limite) {
+                break;
+            }
+            pagina.add(copia(funko));
+        }
+        return pagina;
+    }
+
+    @Override
+    public Funko save(Funko funko) {
+        escritura.lock();
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            Funko nuevo = copia(funko);
+            nuevo.setId(nextId.incrementAndGet());
+            nuevo.setCreatedAt(ahora);
+            nuevo.setUpdatedAt(ahora);
+            funkos.put(nuevo.getId(), nuevo);
+            indexar(nuevo);
+            return copia(nuevo);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Funko> update(Long id, Funko cambios) {
+        return modificar(id, actual -> {
+            actual.setNombre(cambios.getNombre());
+            actual.setPrecio(cambios.getPrecio());
+            actual.setCategoria(cambios.getCategoria());
+            actual.setFechaLanzamiento(cambios.getFechaLanzamiento());
+        });
+    }
+
+    @Override
+    public Optional<Funko> patch(Long id, Funko cambios) {
+        return modificar(id, actual -> {
+            if (cambios.getNombre() != null) {
+                actual.setNombre(cambios.getNombre());
+            }
+            if (cambios.getPrecio() != null) {
+                actual.setPrecio(cambios.getPrecio());
+            }
+            if (cambios.getCategoria() != null) {
+                actual.setCategoria(cambios.getCategoria());
+            }
+            if (cambios.getFechaLanzamiento() != null) {
+                actual.setFechaLanzamiento(cambios.getFechaLanzamiento());
+            }
+        });
+    }
+
+    @Override
+    public Optional<Funko> deleteById(Long id, LocalDateTime deletedAt) {
+        escritura.lock();
+        try {
+            Funko borrado = funkos.remove(id);
+            if (borrado == null) {
+                return Optional.empty();
+            }
+            desindexar(borrado);
+            return Optional.of(borrado);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    @Override
+    public List<Funko> findByNombreContainingIgnoreCase(String nombre) {
+        String buscado = nombre.toLowerCase(Locale.ROOT);
+        // Se recorren los nombres distintos del índice, no los Funkos
+        List<Set<Long>> candidatos = new ArrayList<>();
+        for (Map.Entry<String, Set<Long>> entry : porNombre.entrySet()) {
+            if (entry.getKey().contains(buscado)) {
+                candidatos.add(entry.getValue());
+            }
+        }
+        return resolver(candidatos, f -> f.getNombre() != null
+                && f.getNombre().toLowerCase(Locale.ROOT).contains(buscado));
+    }
+
+    @Override
+    public List<Funko> findByPrecioBefore(Double precio) {
+        return resolver(porPrecio.headMap(precio, false).values(),
+                f -> f.getPrecio() != null && f.getPrecio() < precio);
+    }
+
+    @Override
+    public List<Funko> findByCategoria(Categoria categoria) {
+        String clave = claveCategoria(categoria);
+        Set<Long> ids = clave != null ? porCategoria.get(clave) : null;
+        if (ids == null) {
+            return List.of();
+        }
+        return resolver(List.of(ids), f -> clave.equals(claveCategoria(f.getCategoria())));
+    }
+
+    @Override
+    public long count() {
+        return funkos.size();
+    }
+
+    // Aplica los cambios sobre una copia y la publica entera en el mapa (nunca se muta lo ya visible)
+    private Optional<Funko> modificar(Long id, Consumer<Funko> cambios) {
+        escritura.lock();
+        try {
+            Funko anterior = funkos.get(id);
+            if (anterior == null) {
+                return Optional.empty();
+            }
+            Funko nuevo = copia(anterior);
+            cambios.accept(nuevo);
+            nuevo.setId(id);
+            nuevo.setCreatedAt(anterior.getCreatedAt());
+            nuevo.setUpdatedAt(LocalDateTime.now());
+            desindexar(anterior);
+            funkos.put(id, nuevo);
+            indexar(nuevo);
+            return Optional.of(copia(nuevo));
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Ids candidatos de los índices -> Funkos actuales que siguen cumpliendo el filtro, ordenados por id
+    private List<Funko> resolver(Collection<Set<Long>> candidatos, Predicate<Funko> filtro) {
+        Set<Long> ids = new TreeSet<>();
+        candidatos.forEach(ids::addAll);
+        List<Funko> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Funko funko = funkos.get(id);
+            if (funko != null && filtro.test(funko)) {
+                resultado.add(copia(funko));
+            }
+        }
+        return resultado;
+    }
+
+    private void indexar(Funko funko) {
+        if (funko.getNombre() != null) {
+            anadir(porNombre, funko.getNombre().toLowerCase(Locale.ROOT), funko.getId());
+        }
+        if (funko.getPrecio() != null) {
+            anadir(porPrecio, funko.getPrecio(), funko.getId());
+        }
+        String categoria = claveCategoria(funko.getCategoria());
+        if (categoria != null) {
+            anadir(porCategoria, categoria, funko.getId());
+        }
+    }
+
+    private void desindexar(Funko funko) {
+        if (funko.getNombre() != null) {
+            quitar(porNombre, funko.getNombre().toLowerCase(Locale.ROOT), funko.getId());
+        }
+        if (funko.getPrecio() != null) {
+            quitar(porPrecio, funko.getPrecio(), funko.getId());
+        }
+        String categoria = claveCategoria(funko.getCategoria());
+        if (categoria != null) {
+            quitar(porCategoria, categoria, funko.getId());
+        }
+    }
+
+    private static <K> void anadir(ConcurrentMap<K, Set<Long>> indice, K clave, Long id) {
+        indice.computeIfAbsent(clave, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static <K> void quitar(ConcurrentMap<K, Set<Long>> indice, K clave, Long id) {
+        indice.computeIfPresent(clave, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Las categorías se indexan por nombre, que es único (las de los tests no tienen id)
+    private static String claveCategoria(Categoria categoria) {
+        return categoria != null ? categoria.getNombre() : null;
+    }
+
+    private static Categoria categoria(String nombre) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        return categoria;
+    }
+
+    private static Funko copia(Funko funko) {
+        Funko copia = new Funko(funko.getId(), funko.getNombre(), funko.getPrecio(), funko.getCategoria(),
+                funko.getFechaLanzamiento(), funko.getCreatedAt(), funko.getUpdatedAt());
+        copia.setUuid(funko.getUuid());
+        copia.setDeleted(funko.isDeleted());
+        copia.setDeletedAt(funko.getDeletedAt());
+        return copia;
+    }
+}
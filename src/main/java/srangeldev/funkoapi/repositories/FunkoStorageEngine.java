@@ -0,0 +1,68 @@
+package srangeldev.funkoapi.repositories;
+
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Motor de almacenamiento de Funkos alternativo a JPA.
+ * Las implementaciones se eligen por perfil y se exponen al resto de la aplicación como un
+ * FunkoStore a través de StorageEngineFunkoRepository.
+ *
+ * Los Funkos que entran y salen son copias: modificar uno devuelto no cambia lo almacenado
+ * hasta que se vuelve a guardar (igual que una entidad desligada en JPA).
+ */
+public interface FunkoStorageEngine {
+
+    // Todos los Funkos ordenados por id (siempre una lista nueva)
+    List<Funko> getAll();
+
+    Optional<Funko> getById(Long id);
+
+    // Ids vivos ordenados, sin leer los Funkos (para reconstruir el filtro de ids existentes)
+    List<Long> ids();
+
+    // Funkos con updatedAt posterior a "desde", sin orden: sólo se copian o decodifican los que cumplen
+    List<Funko> findUpdatedAfter(LocalDateTime desde);
+
+    // Hasta "limite" Funkos con id mayor que afterId, ordenados por id (una página keyset sin copiar el resto)
+    List<Funko> findAfter(long afterId, int limite);
+
+    // Alta: asigna siempre un id nuevo (nunca se reutilizan) y las fechas de alta y modificación
+    Funko save(Funko funko);
+
+    // Reemplaza todos los campos de negocio; createdAt se conserva y updatedAt se renueva
+    Optional<Funko> update(Long id, Funko funko);
+
+    // Como update, pero sólo con los campos no nulos
+    Optional<Funko> patch(Long id, Funko funko);
+
+    // deletedAt es la fecha del borrado lógico del servicio, la que conserva el tombstone
+    Optional<Funko> deleteById(Long id, LocalDateTime deletedAt);
+
+    default Optional<Funko> deleteById(Long id) {
+        return deleteById(id, LocalDateTime.now());
+    }
+
+    List<Funko> findByNombreContainingIgnoreCase(String nombre);
+
+    List<Funko> findByPrecioBefore(Double precio);
+
+    List<Funko> findByCategoria(Categoria categoria);
+
+    long count();
+
+    // Ids borrados que el motor conserva entre reinicios, con su fecha de borrado (por defecto ninguno)
+    default Map<Long, LocalDateTime> tombstones() {
+        return Map.of();
+    }
+
+    // Ya purgados: el motor puede dejar de conservarlos
+    default void forgetTombstones(Collection<Long> ids) {
+    }
+}
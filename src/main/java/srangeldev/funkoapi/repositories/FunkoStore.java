@@ -0,0 +1,48 @@
+package srangeldev.funkoapi.repositories;
+
+import org.springframework.data.domain.Pageable;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.models.Funko;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lo que el servicio, la caché de ids, la purga y la instantánea del catálogo necesitan del almacén de
+ * Funkos, y nada más. Hay dos implementaciones: JpaFunkoStore (FunkoRepository de Spring Data, perfil
+ * por defecto) y StorageEngineFunkoRepository (un FunkoStorageEngine, perfiles "memory" y "log").
+ *
+ * Las consultas con sólo algunos campos (?fields=) vienen de FunkoFieldsRepository.
+ */
+public interface FunkoStore extends FunkoFieldsRepository {
+
+    // Alta (sin id) o modificación; como en JPA, el id y las fechas quedan en el objeto recibido.
+    // El borrado lógico es un save con deleted = true
+    <S extends Funko> S save(S funko);
+
+    Optional<Funko> findById(Long id);
+
+    List<Funko> findAll();
+
+    List<Funko> findAllById(Iterable<Long> ids);
+
+    long count();
+
+    // Sólo los ids, para construir el filtro de ids existentes sin cargar entidades
+    List<Long> findAllIds();
+
+    // Una página del listado en orden de id, empezando después de un id (keyset)
+    List<FunkoResponseDto> findResponsesAfter(long despues, Pageable pagina);
+
+    // Modificados (o creados) después de una fecha, para la sincronización incremental
+    List<Funko> findByUpdatedAtAfterOrderByUpdatedAtAsc(LocalDateTime desde);
+
+    // Ids borrados después de una fecha (para la sincronización incremental)
+    List<Long> findDeletedIdsSince(LocalDateTime desde);
+
+    // Lote de tombstones anteriores a una fecha, los más antiguos primero (para la purga)
+    List<Long> findTombstoneIds(LocalDateTime antesDe, int limite);
+
+    int purgeTombstones(List<Long> ids);
+}
@@ -0,0 +1,94 @@
+package srangeldev.funkoapi.repositories;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * FunkoStore sobre el repositorio de Spring Data. Sólo delega: las transacciones las abre el servicio
+ * (o el propio FunkoRepository en las consultas que llevan su @Transactional).
+ */
+@Repository
+@Profile("!memory & !log")
+public class JpaFunkoStore implements FunkoStore {
+
+    private final FunkoRepository repository;
+
+    public JpaFunkoStore(FunkoRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public <S extends Funko> S save(S funko) {
+        return repository.save(funko);
+    }
+
+    @Override
+    public Optional<Funko> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public List<Funko> findAll() {
+        return repository.findAll();
+    }
+
+    @Override
+    public List<Funko> findAllById(Iterable<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    public long count() {
+        return repository.count();
+    }
+
+    @Override
+    public List<Long> findAllIds() {
+        return repository.findAllIds();
+    }
+
+    @Override
+    public List<FunkoResponseDto> findResponsesAfter(long despues, Pageable pagina) {
+        return repository.findResponsesAfter(despues, pagina);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(Set<CampoFunko> campos, long despues, int limite) {
+        return repository.findFieldsAfter(campos, despues, limite);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, Set<CampoFunko> campos) {
+        return repository.findFieldsById(id, campos);
+    }
+
+    @Override
+    public List<Funko> findByUpdatedAtAfterOrderByUpdatedAtAsc(LocalDateTime desde) {
+        return repository.findByUpdatedAtAfterOrderByUpdatedAtAsc(desde);
+    }
+
+    @Override
+    public List<Long> findDeletedIdsSince(LocalDateTime desde) {
+        return repository.findDeletedIdsSince(desde);
+    }
+
+    @Override
+    public List<Long> findTombstoneIds(LocalDateTime antesDe, int limite) {
+        return repository.findTombstoneIds(antesDe, limite);
+    }
+
+    @Override
+    public int purgeTombstones(List<Long> ids) {
+        return repository.purgeTombstones(ids);
+    }
+}
@@ -0,0 +1,166 @@
+package srangeldev.funkoapi.repositories;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * FunkoStore sobre un FunkoStorageEngine, para que el servicio, la caché de ids y la purga funcionen
+ * igual con un motor alternativo que con JPA, en los perfiles que traen motor propio: "memory"
+ * (FunkoRepositoryImpl) y "log" (FunkoLogStore). En esos perfiles no existe JpaFunkoStore.
+ *
+ * - save() sin id es un alta y con id una actualización; como en JPA, el id y las fechas se copian en
+ *   el objeto recibido. Si el id ya no está (un PUT/PATCH que se cruza con un DELETE) se lanza
+ *   OptimisticLockingFailureException (409), igual que la comprobación de versión de JPA, en lugar de
+ *   resucitar el Funko con otro id.
+ * - El borrado lógico del servicio (save con deleted = true) saca el Funko del motor y deja su
+ *   tombstone aquí, para la sincronización incremental y para la purga. Al arrancar se cargan los
+ *   que conserve el motor (FunkoStorageEngine.tombstones).
+ */
+@Repository
+@Profile({"memory", "log"})
+public class StorageEngineFunkoRepository implements FunkoStore {
+
+    private final FunkoStorageEngine engine;
+    // Tombstones: id -> fecha de borrado
+    private final ConcurrentSkipListMap<Long, LocalDateTime> tombstones = new ConcurrentSkipListMap<>();
+
+    public StorageEngineFunkoRepository(FunkoStorageEngine engine) {
+        this.engine = engine;
+        // Los que el motor recuerda de antes del reinicio (el log los reconstruye de sus registros DELETE)
+        tombstones.putAll(engine.tombstones());
+    }
+
+    // --- Consultas ---
+
+    @Override
+    public List<FunkoResponseDto> findResponsesAfter(long despues, Pageable pagina) {
+        return despuesDe(despues, pagina.getPageSize()).map(StorageEngineFunkoRepository::response).toList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(Set<CampoFunko> campos, long despues, int limite) {
+        return despuesDe(despues, limite).map(f -> CampoFunko.recortar(f, campos)).toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, Set<CampoFunko> campos) {
+        return engine.getById(id).map(f -> CampoFunko.recortar(f, campos));
+    }
+
+    @Override
+    public List<Long> findAllIds() {
+        return engine.ids();
+    }
+
+    @Override
+    public List<Funko> findByUpdatedAtAfterOrderByUpdatedAtAsc(LocalDateTime desde) {
+        return engine.findUpdatedAfter(desde).stream()
+                .sorted(Comparator.comparing(Funko::getUpdatedAt))
+                .toList();
+    }
+
+    @Override
+    public List<Long> findDeletedIdsSince(LocalDateTime desde) {
+        return tombstones.entrySet().stream()
+                .filter(e -> e.getValue().isAfter(desde))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public List<Long> findTombstoneIds(LocalDateTime antesDe, int limite) {
+        return tombstones.entrySet().stream()
+                .filter(e -> e.getValue().isBefore(antesDe))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(limite)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public int purgeTombstones(List<Long> ids) {
+        int purgados = 0;
+        for (Long id : ids) {
+            if (tombstones.remove(id) != null) {
+                purgados++;
+            }
+        }
+        engine.forgetTombstones(ids);
+        return purgados;
+    }
+
+    // --- CRUD ---
+
+    @Override
+    public <S extends Funko> S save(S entity) {
+        if (entity.isDeleted()) {
+            borrar(entity.getId(), entity.getDeletedAt());
+            return entity;
+        }
+        Funko guardado = entity.getId() != null
+                ? engine.update(entity.getId(), entity).orElseThrow(() -> new OptimisticLockingFailureException(
+                        "El Funko " + entity.getId() + " se ha borrado mientras se modificaba"))
+                : engine.save(entity);
+        entity.setId(guardado.getId());
+        entity.setCreatedAt(guardado.getCreatedAt());
+        entity.setUpdatedAt(guardado.getUpdatedAt());
+        return entity;
+    }
+
+    @Override
+    public Optional<Funko> findById(Long id) {
+        return engine.getById(id);
+    }
+
+    @Override
+    public List<Funko> findAll() {
+        return engine.getAll();
+    }
+
+    @Override
+    public List<Funko> findAllById(Iterable<Long> ids) {
+        List<Funko> encontrados = new ArrayList<>();
+        ids.forEach(id -> engine.getById(id).ifPresent(encontrados::add));
+        return encontrados;
+    }
+
+    @Override
+    public long count() {
+        return engine.count();
+    }
+
+    // Los siguientes Funkos en orden de id: consulta por rango del motor, sin copiar el resto del catálogo
+    private Stream<Funko> despuesDe(long despues, int limite) {
+        return engine.findAfter(despues, limite).stream();
+    }
+
+    private static FunkoResponseDto response(Funko f) {
+        return new FunkoResponseDto(f.getId(), f.getNombre(), f.getPrecio(), f.getCategoria(),
+                f.getFechaLanzamiento(), f.getCreatedAt(), f.getUpdatedAt());
+    }
+
+    // Saca el Funko del motor y deja su tombstone (si existía)
+    private void borrar(Long id, LocalDateTime deletedAt) {
+        if (id == null) {
+            return;
+        }
+        LocalDateTime fecha = deletedAt != null ? deletedAt : LocalDateTime.now();
+        // La misma fecha en el motor: el log la guarda en el registro DELETE y la devuelve tras reiniciar
+        engine.deleteById(id, fecha).ifPresent(f -> tombstones.put(id, fecha));
+    }
+}
@@ -0,0 +1,48 @@
+package srangeldev.funkoapi.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Destino de las conexiones del hilo actual: réplica para las transacciones de sólo lectura,
+ * salvo que la petición tenga que leer del primario (lectura de tus propias escrituras).
+ */
+public final class DataSourceRoute {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRoute() {
+    }
+
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get() != null;
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+    }
+
+    /**
+     * Ejecuta una lectura contra el primario (si no había ya que hacerlo, se deja el hilo como estaba).
+     * Para lo que se guarda en cachés compartidas: una réplica retrasada las llenaría de datos viejos.
+     * La conexión se decide en la primera sentencia, así que no debe haber ya una transacción con conexión.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean forzado = isPrimaryForced();
+        forcePrimary();
+        try {
+            return read.get();
+        } finally {
+            if (!forzado) {
+                clear();
+            }
+        }
+    }
+}
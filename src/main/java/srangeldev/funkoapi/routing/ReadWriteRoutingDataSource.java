@@ -0,0 +1,31 @@
+package srangeldev.funkoapi.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Enruta cada conexión al primario o a la réplica según la transacción en curso:
+ * las @Transactional(readOnly = true) (y los métodos de lectura de los repositorios de Spring Data,
+ * que ya lo son) van a la réplica; el resto, al primario.
+ *
+ * Debe ir detrás de un LazyConnectionDataSourceProxy: la transacción JPA pide la conexión antes de
+ * marcarse como de sólo lectura, y el proxy retrasa la conexión real hasta la primera sentencia.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(DataSourceRoute.Target.PRIMARY, primary, DataSourceRoute.Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !DataSourceRoute.isPrimaryForced()
+                ? DataSourceRoute.Target.REPLICA
+                : DataSourceRoute.Target.PRIMARY;
+    }
+}
@@ -0,0 +1,58 @@
+package srangeldev.funkoapi.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import srangeldev.funkoapi.ratelimit.RateLimitFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Lectura de tus propias escrituras con réplicas: durante una ventana (el retraso máximo esperado de la
+ * réplica) después de que un cliente escriba, sus lecturas van al primario. El resto de clientes
+ * siguen leyendo de la réplica.
+ *
+ * El cliente es la IP junto con la X-API-Key si viene. Aquí no hace falta validar la clave: sólo decide
+ * a dónde van las lecturas de ese mismo cliente, y la caché de escritores recientes está acotada.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window, long maxClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cliente = cliente(request);
+        boolean lectura = RateLimitFilter.esLectura(request.getMethod());
+        if (lectura && recentWriters.getIfPresent(cliente) != null) {
+            DataSourceRoute.forcePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRoute.clear();
+            if (!lectura && response.getStatus() < 400) {
+                recentWriters.put(cliente, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static String cliente(HttpServletRequest request) {
+        String apiKey = request.getHeader(RateLimitFilter.HEADER_API_KEY);
+        return apiKey != null && !apiKey.isBlank()
+                ? request.getRemoteAddr() + "|" + apiKey
+                : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,402 @@
+package srangeldev.funkoapi.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import srangeldev.funkoapi.dto.FunkoCambioDto;
+import srangeldev.funkoapi.mappers.FunkoMapper;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.FunkoCambio;
+import srangeldev.funkoapi.models.enums.TipoCambio;
+import srangeldev.funkoapi.repositories.FunkoCambioRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed de cambios del catálogo (create/update/patch/delete) para consumidores que antes hacían polling.
+ *
+ * - Cada cambio recibe una secuencia de la BBDD (funko_cambios_seq) y se guarda en la tabla outbox en la
+ *   misma transacción. La secuencia es única aunque varios nodos escriban en la misma BBDD.
+ * - Tras el commit el evento se publica por SSE a los suscriptores y se guarda en un buffer circular
+ *   en memoria con los últimos eventos, de donde se sirve la reanudación (Last-Event-ID); si el cliente
+ *   se ha quedado más atrás, se lee de la tabla outbox.
+ * - Los eventos se entregan siempre en orden de secuencia: si una transacción confirma antes que otra
+ *   de este nodo con secuencia menor, espera a que esta confirme (o se deshaga). También espera a las
+ *   peticiones de secuencia que ya estaban en marcha cuando se asignó la suya, porque podrían
+ *   devolver un número menor.
+ * - Los suscriptores son peticiones asíncronas (SseEmitter): no ocupan un hilo mientras están en espera.
+ * - Ningún envío (ni la lectura de la outbox al reanudar) se hace con el cerrojo del feed: cada suscriptor
+ *   tiene una cola acotada y un envío propio, así que un cliente lento sólo se retrasa a sí mismo. Si su
+ *   cola se llena se le cierra la conexión y reanuda con Last-Event-ID.
+ *
+ * Con varios nodos, cada feed entrega en vivo sólo los cambios de su nodo. Los demás números de la
+ * secuencia son huecos que no se esperan. Una reanudación que llega hasta la tabla outbox sí recibe
+ * los cambios de todos los nodos.
+ */
+@Slf4j
+@Service
+public class ChangeFeedService {
+
+    // Evento ya serializado: se codifica una vez y se envía igual a todos los suscriptores
+    record Evento(long seq, TipoCambio tipo, String json) {
+    }
+
+    // Marca de heartbeat en la cola de un suscriptor
+    private static final Evento PING = new Evento(-1, null, null);
+
+    // Una conexión SSE con su cola de eventos pendientes de enviar
+    private static final class Suscriptor {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Evento> cola;
+        // true mientras hay un envío en marcha (o programado): como mucho uno a la vez por suscriptor
+        private final AtomicBoolean enviando = new AtomicBoolean(true);
+
+        private Suscriptor(SseEmitter emitter, int capacidad) {
+            this.emitter = emitter;
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+
+    private final FunkoCambioRepository repository;
+    private final FunkoMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+    private final int capacidadCola;
+
+    // Cambios de este nodo confirmados desde el arranque (CatalogVersion los suma a lo leído de la outbox)
+    private final AtomicLong confirmados = new AtomicLong();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    // Envíos a los suscriptores (bloquean en la E/S del socket): un hilo virtual por envío en curso
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("change-feed-sender-", 0).factory());
+
+    // Evento confirmado pendiente de entregar, con el primer ticket de petición de secuencia que ya no
+    // puede devolver un número menor que el suyo (las que empezaron después de obtenerlo)
+    private record Pendiente(Evento evento, long limite) {
+    }
+
+    // Estado protegido por "this": buffer circular y eventos confirmados pendientes de entregar en orden.
+    // Con el cerrojo sólo se toca memoria, nunca se envía nada ni se consulta la BBDD
+    private final Evento[] buffer;
+    private int inicioBuffer;
+    private int tamanoBuffer;
+    // El buffer tiene todo lo entregado después de esta secuencia
+    private long ultimaFueraDelBuffer;
+    // Tickets de las peticiones de secuencia a la BBDD en marcha, por orden de inicio
+    private final TreeSet<Long> asignando = new TreeSet<>();
+    private long siguienteTicket;
+    // Secuencias asignadas aún sin confirmar ni deshacer, con su límite
+    private final TreeMap<Long, Long> enCurso = new TreeMap<>();
+    private final TreeMap<Long, Pendiente> pendientes = new TreeMap<>();
+    // Última secuencia entregada, legible sin cerrojo
+    private volatile long ultimaEntregada;
+
+    public ChangeFeedService(FunkoCambioRepository repository, FunkoMapper mapper, ObjectMapper objectMapper,
+                             @Value("${funkoapi.changes.buffer-size:1024}") int bufferSize,
+                             @Value("${funkoapi.changes.emitter-timeout:PT30M}") Duration emitterTimeout,
+                             @Value("${funkoapi.changes.subscriber-queue:256}") int capacidadCola) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.buffer = new Evento[bufferSize];
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.capacidadCola = capacidadCola;
+    }
+
+    @PostConstruct
+    void init() {
+        long ultima = repository.findMaxSeq();
+        synchronized (this) {
+            ultimaFueraDelBuffer = ultima;
+            ultimaEntregada = ultima;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        suscriptores.forEach(s -> s.emitter.complete());
+        senders.shutdown();
+    }
+
+    /**
+     * Registra un cambio. Debe llamarse dentro de la transacción del cambio (si la hay):
+     * la fila outbox se confirma o se deshace con ella. En los borrados el Funko es null.
+     */
+    public void registrar(TipoCambio tipo, Long funkoId, Funko funko) {
+        long seq = asignar();
+        LocalDateTime ahora = LocalDateTime.now();
+        Evento evento;
+        try {
+            FunkoCambioDto dto = new FunkoCambioDto(seq, tipo, funkoId, ahora, funko != null ? mapper.toResponse(funko) : null);
+            evento = new Evento(seq, tipo, serializar(dto));
+            repository.save(new FunkoCambio(seq, tipo, funkoId, ahora, evento.json()));
+        } catch (RuntimeException e) {
+            // La secuencia ya está consumida: se olvida para no bloquear la entrega
+            descartar(seq);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        confirmar(evento);
+                    } else {
+                        descartar(seq);
+                    }
+                }
+            });
+        } else {
+            confirmar(evento);
+        }
+    }
+
+    /**
+     * Nueva suscripción SSE. Si se indica la última secuencia vista, primero se reenvía lo posterior.
+     */
+    public SseEmitter suscribir(Long ultimaSecuenciaVista) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Suscriptor suscriptor = new Suscriptor(emitter, capacidadCola);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+
+        // El alta y la secuencia de corte se toman juntas: lo entregado después entra en su cola y lo
+        // anterior (hasta "hasta") lo reenvía la reanudación, sin perder ni duplicar eventos
+        long hasta;
+        synchronized (this) {
+            hasta = ultimaEntregada;
+            suscriptores.add(suscriptor);
+        }
+        // "enviando" nace a true: hasta terminar la reanudación nadie más envía a este suscriptor
+        senders.execute(() -> {
+            if (ultimaSecuenciaVista == null || reanudar(suscriptor, ultimaSecuenciaVista, hasta)) {
+                vaciar(suscriptor);
+            }
+        });
+        return emitter;
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    public long getUltimaSecuencia() {
+        return ultimaEntregada;
+    }
+
+    public long getCambiosConfirmados() {
+        return confirmados.get();
+    }
+
+    // Comentario SSE cada cierto tiempo: mantiene vivas las conexiones y detecta clientes desaparecidos
+    @Scheduled(fixedDelayString = "${funkoapi.changes.heartbeat:PT30S}")
+    public void heartbeat() {
+        for (Suscriptor suscriptor : suscriptores) {
+            encolar(suscriptor, PING);
+        }
+    }
+
+    // Siguiente secuencia de la BBDD. La consulta va sin el cerrojo; antes y después sólo se apunta en memoria
+    private long asignar() {
+        long ticket;
+        synchronized (this) {
+            ticket = siguienteTicket++;
+            asignando.add(ticket);
+        }
+        long seq;
+        try {
+            seq = repository.nextSeq();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                asignando.remove(ticket);
+                entregarEnOrden();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            asignando.remove(ticket);
+            // Las peticiones que empiecen a partir de ahora ya sólo pueden devolver números mayores
+            enCurso.put(seq, siguienteTicket);
+            entregarEnOrden();
+        }
+        return seq;
+    }
+
+    private synchronized void confirmar(Evento evento) {
+        confirmados.incrementAndGet();
+        Long limite = enCurso.remove(evento.seq());
+        pendientes.put(evento.seq(), new Pendiente(evento, limite != null ? limite : siguienteTicket));
+        entregarEnOrden();
+    }
+
+    private synchronized void descartar(long seq) {
+        enCurso.remove(seq);
+        entregarEnOrden();
+    }
+
+    // Entrega los confirmados que ya no pueden tener por delante ninguna secuencia de este nodo
+    private void entregarEnOrden() {
+        while (!pendientes.isEmpty()) {
+            Map.Entry<Long, Pendiente> primero = pendientes.firstEntry();
+            if (!enCurso.isEmpty() && enCurso.firstKey() < primero.getKey()
+                    || !asignando.isEmpty() && asignando.first() < primero.getValue().limite()) {
+                break;
+            }
+            pendientes.pollFirstEntry();
+            Evento evento = primero.getValue().evento();
+            guardarEnBuffer(evento);
+            ultimaEntregada = evento.seq();
+            // Encolar no bloquea: si la cola está llena se cierra ese suscriptor
+            for (Suscriptor suscriptor : suscriptores) {
+                encolar(suscriptor, evento);
+            }
+        }
+    }
+
+    private void encolar(Suscriptor suscriptor, Evento evento) {
+        if (!suscriptor.cola.offer(evento)) {
+            // Cliente demasiado lento: se le corta y reanudará desde su último Last-Event-ID. El cierre va
+            // a otro hilo porque el emitter puede estar bloqueado en un send a ese mismo cliente
+            log.debug("Cola de un suscriptor del feed llena, se cierra la conexión");
+            if (suscriptores.remove(suscriptor)) {
+                senders.execute(() -> cerrar(suscriptor, null));
+            }
+            return;
+        }
+        if (suscriptor.enviando.compareAndSet(false, true)) {
+            senders.execute(() -> vaciar(suscriptor));
+        }
+    }
+
+    // Envía lo que haya en la cola del suscriptor; sólo lo ejecuta quien puso "enviando" a true
+    private void vaciar(Suscriptor suscriptor) {
+        do {
+            Evento evento;
+            while ((evento = suscriptor.cola.poll()) != null) {
+                if (!enviar(suscriptor, evento)) {
+                    return;
+                }
+            }
+            suscriptor.enviando.set(false);
+            // Un evento encolado justo antes de soltar "enviando" no ha programado otro envío: lo recogemos
+        } while (!suscriptor.cola.isEmpty() && suscriptor.enviando.compareAndSet(false, true));
+    }
+
+    // Reenvía los eventos en (desde, hasta]: del buffer si aún los tiene, si no de la tabla outbox por páginas.
+    // Devuelve false si la conexión se ha cerrado
+    private boolean reanudar(Suscriptor suscriptor, long desde, long hasta) {
+        long cursor = desde;
+        while (cursor < hasta) {
+            List<Evento> lote = eventosDesde(cursor, hasta);
+            if (lote.isEmpty()) {
+                return true;
+            }
+            for (Evento evento : lote) {
+                if (!enviar(suscriptor, evento)) {
+                    return false;
+                }
+            }
+            cursor = lote.get(lote.size() - 1).seq();
+        }
+        return true;
+    }
+
+    private boolean enviar(Suscriptor suscriptor, Evento evento) {
+        try {
+            if (evento == PING) {
+                suscriptor.emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                suscriptor.emitter.send(SseEmitter.event()
+                        .id(Long.toString(evento.seq()))
+                        .name(evento.tipo().name())
+                        .data(evento.json(), MediaType.APPLICATION_JSON));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            cerrar(suscriptor, e);
+            return false;
+        }
+    }
+
+    private void cerrar(Suscriptor suscriptor, Exception error) {
+        suscriptores.remove(suscriptor);
+        suscriptor.cola.clear();
+        if (error != null) {
+            suscriptor.emitter.completeWithError(error);
+        } else {
+            suscriptor.emitter.complete();
+        }
+    }
+
+    private void guardarEnBuffer(Evento evento) {
+        int posicion = (inicioBuffer + tamanoBuffer) % buffer.length;
+        if (tamanoBuffer == buffer.length) {
+            ultimaFueraDelBuffer = buffer[posicion].seq();
+        }
+        buffer[posicion] = evento;
+        if (tamanoBuffer < buffer.length) {
+            tamanoBuffer++;
+        } else {
+            inicioBuffer = (inicioBuffer + 1) % buffer.length;
+        }
+    }
+
+    // Siguiente lote de eventos en (desde, hasta]: copia del buffer (con el cerrojo) si lo cubre; si no,
+    // una página de la tabla outbox, consultada sin el cerrojo
+    private List<Evento> eventosDesde(long desde, long hasta) {
+        synchronized (this) {
+            if (desde >= ultimaFueraDelBuffer) {
+                List<Evento> resultado = new ArrayList<>();
+                for (int i = 0; i < tamanoBuffer; i++) {
+                    Evento evento = buffer[(inicioBuffer + i) % buffer.length];
+                    if (evento.seq() > desde && evento.seq() <= hasta) {
+                        resultado.add(evento);
+                    }
+                }
+                return resultado;
+            }
+        }
+        List<Evento> resultado = new ArrayList<>();
+        for (FunkoCambio cambio : repository.findTop500BySeqGreaterThanOrderBySeqAsc(desde)) {
+            if (cambio.getSeq() > hasta) {
+                break;
+            }
+            resultado.add(new Evento(cambio.getSeq(), cambio.getTipo(), cambio.getPayload()));
+        }
+        return resultado;
+    }
+
+    private String serializar(FunkoCambioDto dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + dto.seq(), e);
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package srangeldev.funkoapi.services;
 
 import srangeldev.funkoapi.dto.FunkoRequestDto;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
 import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Interfaz del servicio que define las operaciones de negocio para Funkos.
  */
 public interface FunkoService {
     List<Funko> getAll();
+    // El listado ya como DTOs de respuesta (proyección en la consulta, sin cargar entidades), para
+    // serializarlo según se recorre: el Stream se consume fuera de la transacción del servicio
+    Stream<FunkoResponseDto> streamAllResponses();
     Funko getById(Long id);
+    // Sparse fieldsets (?fields=): sólo los campos pedidos, como mapa campo -> valor
+    Stream<Map<String, Object>> streamAllFields(Set<CampoFunko> campos);
+    Map<String, Object> getFieldsById(Long id, Set<CampoFunko> campos);
+    // Varios Funkos de una vez; los ids inexistentes no aparecen en el mapa
+    Map<Long, Funko> getByIds(Collection<Long> ids);
     Funko create(FunkoRequestDto dto);
     Funko update(Long id, FunkoRequestDto dto);
     Funko patch(Long id, FunkoRequestDto dto);
     void delete(Long id);
+    // Sincronización incremental: modificados y borrados después de una fecha
+    List<Funko> getModifiedSince(LocalDateTime since);
+    List<Long> getDeletedSince(LocalDateTime since);
 }
@@ -1,57 +1,229 @@
 package srangeldev.funkoapi.services;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.observation.annotation.Observed;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.funkoapi.cache.ExistingFunkoIds;
+import srangeldev.funkoapi.cache.NegativeLookupCache;
 import srangeldev.funkoapi.dto.FunkoRequestDto;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.exceptions.FunkoException;
 import srangeldev.funkoapi.exceptions.FunkoNotFoundException;
+import srangeldev.funkoapi.jfr.FunkoSaveEvent;
+import srangeldev.funkoapi.jfr.FunkoValidationFailureEvent;
 import srangeldev.funkoapi.models.Funko;
-import srangeldev.funkoapi.repositories.FunkoRepository;
+import srangeldev.funkoapi.models.enums.CampoFunko;
+import srangeldev.funkoapi.models.enums.TipoCambio;
+import srangeldev.funkoapi.repositories.FunkoStore;
+import srangeldev.funkoapi.routing.DataSourceRoute;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio que delega el almacenamiento en un repositorio en memoria.
  * También incorpora caché con Spring Cache.
+ * Cada método público se observa como "funko.service": genera un timer (etiquetado por método)
+ * y un span en la traza de la petición.
+ *
+ * Los listados completos no abren transacción propia: se devuelven como Stream y se leen por páginas
+ * (ver porPaginas) mientras el controlador los serializa. Eso tiene dos consecuencias:
+ * - No son una foto consistente: cada página de PAGINA_LISTADO filas es su propia transacción, así que un
+ *   listado largo puede ver una escritura concurrente en unas páginas y no en otras (cada id sale una
+ *   sola vez, por el keyset).
+ * - El timer de funko.service de streamAll* sólo cubre la primera página: el resto se lee al serializar,
+ *   fuera del método. El coste real del listado está en http.server.requests (GET /funkos).
+ *
+ * Las lecturas van en transacciones readOnly: Spring pone la sesión de Hibernate en FlushMode.MANUAL
+ * y con entidades de sólo lectura (sin la copia para el dirty checking), y marca la conexión como de
+ * sólo lectura (lo que la envía a la réplica). Con open-in-view desactivado, la conexión se devuelve
+ * al terminar el método y no al terminar la petición.
+ *
+ * Excepción: lo que acaba en cachés compartidas (la caché de Funkos y la negativa de ids inexistentes)
+ * se lee del primario (DataSourceRoute.onPrimary). Una réplica retrasada dejaría en caché una versión
+ * vieja, o marcaría como inexistente un Funko recién creado durante todo el TTL de la caché negativa.
+ * Esos métodos no abren transacción propia: cada consulta del repositorio abre la suya y elige conexión.
  */
 @Service
-@CacheConfig(cacheNames = "funkos")
+@Observed(name = "funko.service")
+@CacheConfig(cacheNames = FunkoServiceImpl.CACHE_NAME)
 public class FunkoServiceImpl implements FunkoService {
 
-    private final FunkoRepository repository;
+    static final String CACHE_NAME = "funkos";
+    // Límite de ids por petición multi-get
+    static final int MAX_IDS = 200;
+    // Filas por consulta al recorrer el listado completo
+    static final int PAGINA_LISTADO = 500;
+
+    private final FunkoStore repository;
+    private final NegativeLookupCache missingIds;
+    private final ExistingFunkoIds existingIds;
+    private final CacheManager cacheManager;
+    private final ChangeFeedService changes;
 
     @Autowired
-    public FunkoServiceImpl(FunkoRepository repository) {
+    public FunkoServiceImpl(FunkoStore repository, NegativeLookupCache missingIds, ExistingFunkoIds existingIds,
+                            CacheManager cacheManager, ChangeFeedService changes) {
         this.repository = repository;
+        this.missingIds = missingIds;
+        this.existingIds = existingIds;
+        this.cacheManager = cacheManager;
+        this.changes = changes;
     }
 
     @Override
     @CachePut(key = "#result.id")
+    @Transactional // El alta y su fila en el feed de cambios se confirman juntas
     public Funko create(FunkoRequestDto dto) {
         // Validación simple extra (además de la de anotaciones)
         validarNegocio(dto);
-        Funko funko = new Funko(null, dto.getNombre(), dto.getPrecio(), dto.getCategoria(), dto.getFechaLanzamiento(), null, null);
-        return repository.save(funko);
+        Funko funko = new Funko(null, dto.nombre(), dto.precio(), dto.categoria(), dto.fechaLanzamiento(), null, null);
+        Funko creado = guardar("create", funko);
+        // El id ya existe: lo añadimos al filtro y, si alguien lo había pedido antes, deja de estar marcado como inexistente
+        existingIds.add(creado.getId());
+        missingIds.forget(creado.getId());
+        changes.registrar(TipoCambio.CREATE, creado.getId(), creado);
+        return creado;
     }
 
     @Override
-    @Cacheable(key = "#id")
     public Funko getById(Long id) {
-        return repository.findById(id).orElseThrow(() -> new FunkoNotFoundException(id));
+        // El filtro de Bloom descarta con seguridad los ids que nunca han existido,
+        // y la caché negativa los inexistentes consultados hace poco: en ambos casos no vamos a la BBDD
+        if (!existingIds.mightExist(id) || missingIds.isKnownMissing(id)) {
+            throw new FunkoNotFoundException(id);
+        }
+        // La caché se usa a mano y no con @Cacheable: así el 404 se lanza fuera del interceptor de caché,
+        // que envolvería la excepción (capturando la pila que FunkoNotFoundException se ahorra).
+        // get(id, loader) es single-flight: las cargas concurrentes del mismo id comparten una única consulta
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Funko funko = cache != null ? cache.get(id, () -> cargar(id)) : cargar(id);
+        if (funko == null) {
+            throw new FunkoNotFoundException(id);
+        }
+        return funko;
+    }
+
+    // Carga de un id que no está en caché (null si no existe), del primario porque se guarda en caché
+    private Funko cargar(Long id) {
+        Funko funko = DataSourceRoute.onPrimary(() -> repository.findById(id)).orElse(null);
+        if (funko == null) {
+            missingIds.markMissing(id);
+        }
+        return funko;
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamAllFields(Set<CampoFunko> campos) {
+        // El id es el cursor de las páginas: se pide siempre y se quita después si no estaba en fields
+        Set<CampoFunko> conId = EnumSet.copyOf(campos);
+        conId.add(CampoFunko.ID);
+        Stream<Map<String, Object>> filas = porPaginas(
+                despues -> repository.findFieldsAfter(conId, despues, PAGINA_LISTADO), fila -> (Long) fila.get("id"));
+        if (campos.contains(CampoFunko.ID)) {
+            return filas;
+        }
+        return filas.map(fila -> {
+            fila.remove("id");
+            return fila;
+        });
+    }
+
+    @Override
+    public Map<String, Object> getFieldsById(Long id, Set<CampoFunko> campos) {
+        if (!existingIds.mightExist(id) || missingIds.isKnownMissing(id)) {
+            throw new FunkoNotFoundException(id);
+        }
+        // Si el Funko completo ya está en caché sale de ahí; si no, sólo se consultan las columnas pedidas
+        // (sin rellenar la caché, que guarda Funkos completos)
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Funko cacheado = cache != null ? cache.get(id, Funko.class) : null;
+        if (cacheado != null) {
+            return CampoFunko.recortar(cacheado, campos);
+        }
+        // La réplica puede no tener aún un alta reciente: antes de recordarlo como inexistente se confirma en el primario
+        return repository.findFieldsById(id, campos)
+                .or(() -> DataSourceRoute.onPrimary(() -> repository.findFieldsById(id, campos)))
+                .orElseThrow(() -> {
+                    missingIds.markMissing(id);
+                    return new FunkoNotFoundException(id);
+                });
+    }
+
+    @Override
+    public Map<Long, Funko> getByIds(Collection<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw rechazar("ids", "No se pueden pedir más de " + MAX_IDS + " ids a la vez");
+        }
+        // Un id vacío (?ids=1,,2 o null en el JSON) no puede llegar a la caché: Caffeine no admite claves null
+        for (Long id : ids) {
+            if (id == null) {
+                throw rechazar("ids", "La lista de ids no puede contener valores vacíos");
+            }
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Map<Long, Funko> encontrados = new HashMap<>();
+        List<Long> pendientes = new ArrayList<>();
+
+        // 1. Primero la caché (y los filtros de ids inexistentes)
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Funko cacheado = cache != null ? cache.get(id, Funko.class) : null;
+            if (cacheado != null) {
+                encontrados.put(id, cacheado);
+            } else if (existingIds.mightExist(id) && !missingIds.isKnownMissing(id)) {
+                pendientes.add(id);
+            }
+        }
+
+        // 2. Todos los fallos en una sola consulta (al primario), rellenando la caché con lo que vuelva
+        if (!pendientes.isEmpty()) {
+            for (Funko funko : DataSourceRoute.onPrimary(() -> repository.findAllById(pendientes))) {
+                encontrados.put(funko.getId(), funko);
+                if (cache != null) {
+                    // putIfAbsent: rellenar tras una lectura no es un cambio, no se avisa a otras réplicas
+                    cache.putIfAbsent(funko.getId(), funko);
+                }
+            }
+            pendientes.stream()
+                    .filter(id -> !encontrados.containsKey(id))
+                    .forEach(missingIds::markMissing);
+        }
+        return encontrados;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Funko> getAll() {
         // Para la lista completa, no usamos caché para simplificar invalidaciones.
         return repository.findAll();
     }
 
+    @Override
+    public Stream<FunkoResponseDto> streamAllResponses() {
+        return porPaginas(despues -> repository.findResponsesAfter(despues, PageRequest.ofSize(PAGINA_LISTADO)),
+                FunkoResponseDto::id);
+    }
+
     @Override
     @CachePut(key = "#id")
     @Transactional // Esto gestiona el ciclo de vida de la entidad para poder hacer update
@@ -62,13 +234,15 @@ public class FunkoServiceImpl implements FunkoService {
         Funko funkoExistente = repository.findById(id).orElseThrow(() -> new FunkoNotFoundException(id));
 
         // Le pasamos los nuevos campos
-        funkoExistente.setNombre(dto.getNombre());
-        funkoExistente.setPrecio(dto.getPrecio());
-        funkoExistente.setCategoria(dto.getCategoria());
-        funkoExistente.setFechaLanzamiento(dto.getFechaLanzamiento());
+        funkoExistente.setNombre(dto.nombre());
+        funkoExistente.setPrecio(dto.precio());
+        funkoExistente.setCategoria(dto.categoria());
+        funkoExistente.setFechaLanzamiento(dto.fechaLanzamiento());
 
         // Al ser una transaccion JPA detecta que ya existe y lo actuliza en vez de crearlo
-        return  repository.save(funkoExistente);
+        Funko actualizado = guardar("update", funkoExistente);
+        changes.registrar(TipoCambio.UPDATE, id, actualizado);
+        return actualizado;
     }
 
     @Override
@@ -82,27 +256,69 @@ public class FunkoServiceImpl implements FunkoService {
         Funko funkoExistente = repository.findById(id).orElseThrow(() -> new FunkoNotFoundException(id));
 
         //Comprobamos el campo uno a uno y aplicamos solo los que no son nulos, es decir los que cambian
-        if (dto.getNombre() != null) {
-            funkoExistente.setNombre(dto.getNombre());
+        if (dto.nombre() != null) {
+            funkoExistente.setNombre(dto.nombre());
         }
-        if (dto.getPrecio() != null) {
-            funkoExistente.setPrecio(dto.getPrecio());
+        if (dto.precio() != null) {
+            funkoExistente.setPrecio(dto.precio());
         }
-        if (dto.getCategoria() != null) {
-            funkoExistente.setCategoria(dto.getCategoria());
+        if (dto.categoria() != null) {
+            funkoExistente.setCategoria(dto.categoria());
         }
-        if (dto.getFechaLanzamiento() != null) {
-            funkoExistente.setFechaLanzamiento(dto.getFechaLanzamiento());
+        if (dto.fechaLanzamiento() != null) {
+            funkoExistente.setFechaLanzamiento(dto.fechaLanzamiento());
         }
 
         //Devolvemos el funko actulizado
-        return  repository.save(funkoExistente);
+        Funko actualizado = guardar("patch", funkoExistente);
+        changes.registrar(TipoCambio.PATCH, id, actualizado);
+        return actualizado;
     }
 
     @Override
     @CacheEvict(key = "#id")
+    @Transactional
     public void delete(Long id) {
-        repository.deleteById(id);
+        // Borrado lógico: sólo se marca la fila (un UPDATE de una fila, sin cascadas ni bloqueos en otras tablas);
+        // el borrado físico lo hace FunkoTombstonePurger por lotes
+        // Como en update/patch, un id inexistente es un 404
+        Funko funko = repository.findById(id).orElseThrow(() -> new FunkoNotFoundException(id));
+        funko.setDeleted(true);
+        funko.setDeletedAt(LocalDateTime.now());
+        guardar("delete", funko);
+        changes.registrar(TipoCambio.DELETE, id, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Funko> getModifiedSince(LocalDateTime since) {
+        // Sin marca de agua es la primera sincronización: va todo el catálogo
+        return since == null ? repository.findAll() : repository.findByUpdatedAtAfterOrderByUpdatedAtAsc(since);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getDeletedSince(LocalDateTime since) {
+        return since == null ? List.of() : repository.findDeletedIdsSince(since);
+    }
+
+    // Página del listado y último id que contiene (tomado al leerla, antes de que nadie toque las filas)
+    private record Pagina<T>(List<T> filas, long ultimoId) {
+    }
+
+    // El listado como un Stream perezoso de páginas por keyset sobre el id. Cada página es una transacción
+    // de sólo lectura del repositorio: la conexión no se retiene mientras se escribe la respuesta y en
+    // memoria nunca hay más de una página. Una página incompleta es la última.
+    private static <T> Stream<T> porPaginas(LongFunction<List<T>> pagina, ToLongFunction<T> id) {
+        LongFunction<Pagina<T>> leer = despues -> {
+            List<T> filas = pagina.apply(despues);
+            return new Pagina<>(filas, filas.isEmpty() ? despues : id.applyAsLong(filas.get(filas.size() - 1)));
+        };
+        UnaryOperator<Pagina<T>> siguiente = p -> p.filas().size() < PAGINA_LISTADO
+                ? new Pagina<>(List.of(), p.ultimoId())
+                : leer.apply(p.ultimoId());
+        return Stream.iterate(leer.apply(0L), p -> !p.filas().isEmpty(), siguiente)
+                .flatMap(p -> p.filas().stream());
     }
 
     // Reglas sencillas de negocio más allá de la validación de anotaciones
@@ -112,23 +328,48 @@ public class FunkoServiceImpl implements FunkoService {
     //   las reglas clave sólo para los campos presentes en el DTO.
     private void validarNegocio(FunkoRequestDto dto) {
         // Nombre: no puede ser cadena vacía ni superar 100 caracteres (si se envía)
-        if (dto.getNombre() != null) {
-            if (dto.getNombre().trim().isEmpty()) {
-                throw new srangeldev.funkoapi.exceptions.FunkoException("El nombre no puede estar vacío");
+        if (dto.nombre() != null) {
+            if (dto.nombre().trim().isEmpty()) {
+                throw rechazar("nombre", "El nombre no puede estar vacío");
             }
-            if (dto.getNombre().length() > 100) {
-                throw new srangeldev.funkoapi.exceptions.FunkoException("El nombre no puede superar 100 caracteres");
+            if (dto.nombre().length() > 100) {
+                throw rechazar("nombre", "El nombre no puede superar 100 caracteres");
             }
         }
 
         // Precio: debe ser > 0 (si se envía)
-        if (dto.getPrecio() != null && dto.getPrecio() <= 0) {
-            throw new srangeldev.funkoapi.exceptions.FunkoException("El precio debe ser mayor que 0");
+        if (dto.precio() != null && dto.precio() <= 0) {
+            throw rechazar("precio", "El precio debe ser mayor que 0");
         }
 
         // Fecha de lanzamiento: no puede ser futura (si se envía)
-        if (dto.getFechaLanzamiento() != null && dto.getFechaLanzamiento().isAfter(LocalDate.now())) {
-            throw new srangeldev.funkoapi.exceptions.FunkoException("La fecha de lanzamiento no puede ser futura");
+        if (dto.fechaLanzamiento() != null && dto.fechaLanzamiento().isAfter(LocalDate.now())) {
+            throw rechazar("fechaLanzamiento", "La fecha de lanzamiento no puede ser futura");
+        }
+    }
+
+    // Emite el evento JFR de validación fallida y construye la excepción a lanzar
+    private FunkoException rechazar(String campo, String mensaje) {
+        FunkoValidationFailureEvent event = new FunkoValidationFailureEvent();
+        if (event.shouldCommit()) {
+            event.field = campo;
+            event.message = mensaje;
+            event.commit();
+        }
+        return new FunkoException(mensaje);
+    }
+
+    // Guarda en el repositorio midiendo la duración con un evento JFR
+    private Funko guardar(String operacion, Funko funko) {
+        FunkoSaveEvent event = new FunkoSaveEvent();
+        event.begin();
+        Funko guardado = repository.save(funko);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operacion;
+            event.id = guardado.getId() != null ? guardado.getId() : -1;
+            event.commit();
         }
+        return guardado;
     }
 }
@@ -0,0 +1,98 @@
+package srangeldev.funkoapi.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import srangeldev.funkoapi.repositories.FunkoStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Purga en segundo plano de los Funkos borrados lógicamente.
+ *
+ * Cada ejecución borra físicamente los tombstones más antiguos que la retención, en lotes pequeños
+ * (cada uno en su propia transacción corta) con una pausa entre lotes y un máximo de lotes por ejecución,
+ * para no competir por bloqueos con el tráfico normal. Lo que no dé tiempo a purgar queda para la siguiente.
+ *
+ * Mientras un tombstone no se purga, GET /funkos/changes lo devuelve como borrado: la retención marca cuánto
+ * tiempo puede estar un cliente sin sincronizar antes de necesitar una sincronización completa.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "funkoapi.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class FunkoTombstonePurger {
+
+    private final FunkoStore repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purgados;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pause;
+
+    public FunkoTombstonePurger(FunkoStore repository, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${funkoapi.purge.retention:P7D}") Duration retention,
+                                @Value("${funkoapi.purge.batch-size:100}") int batchSize,
+                                @Value("${funkoapi.purge.max-batches-per-run:10}") int maxBatchesPerRun,
+                                @Value("${funkoapi.purge.pause-between-batches:PT0.2S}") Duration pause) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgados = Counter.builder("funko.purge.deleted")
+                .description("Tombstones de Funkos borrados físicamente")
+                .register(meterRegistry);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pause = pause;
+    }
+
+    /**
+     * Ejecuta una pasada de purga y devuelve cuántas filas se han borrado.
+     */
+    @Scheduled(fixedDelayString = "${funkoapi.purge.interval:PT1M}", initialDelayString = "${funkoapi.purge.interval:PT1M}")
+    public int purge() {
+        LocalDateTime antesDe = LocalDateTime.now().minus(retention);
+        int total = 0;
+        for (int lote = 0; lote < maxBatchesPerRun; lote++) {
+            if (lote > 0 && !esperar()) {
+                break;
+            }
+            Integer borrados = transactionTemplate.execute(status -> {
+                List<Long> ids = repository.findTombstoneIds(antesDe, batchSize);
+                return ids.isEmpty() ? 0 : repository.purgeTombstones(ids);
+            });
+            int n = borrados != null ? borrados : 0;
+            total += n;
+            purgados.increment(n);
+            if (n < batchSize) {
+                break; // No quedan más tombstones antiguos
+            }
+        }
+        if (total > 0) {
+            log.debug("Purgados {} Funkos borrados antes de {}", total, antesDe);
+        }
+        return total;
+    }
+
+    private boolean esperar() {
+        if (pause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package srangeldev.funkoapi.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.repositories.FunkoStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Publica la instantánea del catálogo para las réplicas de borde a partir de la BBDD.
+ * El fichero se reemplaza de forma atómica, así que las réplicas que lo vigilan cambian a la nueva
+ * versión en su siguiente comprobación.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "funkoapi.snapshot.publish", name = "enabled", havingValue = "true")
+public class CatalogSnapshotPublisher {
+
+    private final FunkoStore repository;
+    private final Path path;
+
+    public CatalogSnapshotPublisher(FunkoStore repository,
+                                    @Value("${funkoapi.snapshot.path:./snapshots/catalog.snap}") Path path) {
+        this.repository = repository;
+        this.path = path;
+    }
+
+    @Transactional(readOnly = true)
+    public synchronized Path publish() throws IOException {
+        List<Funko> funkos = repository.findAll();
+        CatalogSnapshotWriter.write(funkos, path);
+        log.info("Instantánea del catálogo publicada: {} Funkos en {}", funkos.size(), path.toAbsolutePath());
+        return path.toAbsolutePath();
+    }
+}
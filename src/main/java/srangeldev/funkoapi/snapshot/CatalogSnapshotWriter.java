@@ -0,0 +1,92 @@
+package srangeldev.funkoapi.snapshot;
+
+import srangeldev.funkoapi.models.Funko;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static srangeldev.funkoapi.snapshot.SnapshotFormat.*;
+
+/**
+ * Escribe la instantánea binaria del catálogo (ver {@link SnapshotFormat}).
+ *
+ * Se escribe a un fichero temporal en el mismo directorio y se renombra de forma atómica sobre el
+ * destino: quien lo esté leyendo sigue con el fichero anterior y nunca ve uno a medias.
+ */
+public final class CatalogSnapshotWriter {
+
+    private CatalogSnapshotWriter() {
+    }
+
+    public static void write(List<Funko> funkos, Path destino) throws IOException {
+        List<Funko> ordenados = new ArrayList<>(funkos);
+        ordenados.sort(Comparator.comparing(Funko::getId));
+
+        ByteBuffer filas = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE * ordenados.size());
+        filas.putInt(MAGIC).putInt(VERSION).putInt(ordenados.size()).putInt(0);
+        StringHeap heap = new StringHeap();
+        for (Funko f : ordenados) {
+            int base = filas.position();
+            filas.putLong(base + ID, f.getId());
+            filas.putDouble(base + PRECIO, f.getPrecio() != null ? f.getPrecio() : Double.NaN);
+            filas.putLong(base + FECHA_LANZAMIENTO,
+                    f.getFechaLanzamiento() != null ? f.getFechaLanzamiento().toEpochDay() : NULL_LONG);
+            filas.putLong(base + CREATED_AT, toMicros(f.getCreatedAt()));
+            filas.putLong(base + UPDATED_AT, toMicros(f.getUpdatedAt()));
+            filas.putLong(base + CATEGORIA_ID, f.getCategoria() != null && f.getCategoria().getId() != null
+                    ? f.getCategoria().getId() : NULL_LONG);
+            heap.put(filas, base + NOMBRE_OFFSET, f.getNombre());
+            heap.put(filas, base + CATEGORIA_OFFSET, f.getCategoria() != null ? f.getCategoria().getNombre() : null);
+            filas.position(base + RECORD_SIZE);
+        }
+
+        Path dir = destino.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temporal = Files.createTempFile(dir, destino.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporal)) {
+                out.write(filas.array());
+                heap.writeTo(out);
+            }
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    // Cadenas UTF-8 una detrás de otra; las repetidas (categorías) se guardan una sola vez
+    private static final class StringHeap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        void put(ByteBuffer filas, int posicion, String valor) {
+            if (valor == null) {
+                filas.putInt(posicion, -1).putInt(posicion + 4, 0);
+                return;
+            }
+            byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+            Integer offset = offsets.get(valor);
+            if (offset == null) {
+                offset = bytes.size();
+                bytes.writeBytes(utf8);
+                offsets.put(valor, offset);
+            }
+            filas.putInt(posicion, offset).putInt(posicion + 4, utf8.length);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+}
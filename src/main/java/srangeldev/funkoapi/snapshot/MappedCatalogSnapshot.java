@@ -0,0 +1,145 @@
+package srangeldev.funkoapi.snapshot;
+
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static srangeldev.funkoapi.snapshot.SnapshotFormat.*;
+
+/**
+ * Instantánea del catálogo leída a través de un fichero mapeado en memoria.
+ *
+ * El fichero no se carga en el heap: las búsquedas (binaria por id) y los filtros leen los campos de
+ * ancho fijo directamente del mapeo, y sólo se crean objetos para las filas que se devuelven. Las
+ * páginas las gestiona el sistema operativo, que las comparte entre procesos y las conserva entre reinicios.
+ *
+ * Es inmutable: para cambiar de versión se abre otra instancia sobre el fichero nuevo. El mapeo se libera
+ * cuando el recolector descarta la instancia (no se puede desmapear de forma segura mientras haya lectores).
+ * Un solo mapeo admite ficheros de hasta 2 GB (unos 30 millones de Funkos).
+ */
+public final class MappedCatalogSnapshot {
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final int heapStart;
+
+    private MappedCatalogSnapshot(MappedByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("No es una instantánea del catálogo (versión " + VERSION + ")");
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.heapStart = HEADER_SIZE + RECORD_SIZE * size;
+    }
+
+    public static MappedCatalogSnapshot open(Path fichero) throws IOException {
+        try (FileChannel channel = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new MappedCatalogSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Posición de la fila con ese id, o -1 si no está (búsqueda binaria sobre el mapeo).
+     */
+    public int indexOf(long id) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long actual = buffer.getLong(offset(mid) + ID);
+            if (actual < id) {
+                lo = mid + 1;
+            } else if (actual > id) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long id(int i) {
+        return buffer.getLong(offset(i) + ID);
+    }
+
+    // Filtro sin materializar la fila: se compara el long del mapeo
+    public boolean updatedAfter(int i, LocalDateTime fecha) {
+        long updatedAt = buffer.getLong(offset(i) + UPDATED_AT);
+        return updatedAt != NULL_LONG && updatedAt > toMicros(fecha);
+    }
+
+    /**
+     * Materializa la fila i como entidad (sólo para las filas que se van a devolver).
+     */
+    public Funko funko(int i) {
+        int base = offset(i);
+        double precio = buffer.getDouble(base + PRECIO);
+        long fecha = buffer.getLong(base + FECHA_LANZAMIENTO);
+        return new Funko(
+                buffer.getLong(base + ID),
+                string(base + NOMBRE_OFFSET),
+                Double.isNaN(precio) ? null : precio,
+                categoria(base),
+                fecha == NULL_LONG ? null : LocalDate.ofEpochDay(fecha),
+                fromMicros(buffer.getLong(base + CREATED_AT)),
+                fromMicros(buffer.getLong(base + UPDATED_AT)));
+    }
+
+    /**
+     * Materializa la fila i directamente como DTO de respuesta, sin pasar por la entidad.
+     */
+    public FunkoResponseDto response(int i) {
+        int base = offset(i);
+        double precio = buffer.getDouble(base + PRECIO);
+        long fecha = buffer.getLong(base + FECHA_LANZAMIENTO);
+        return new FunkoResponseDto(
+                buffer.getLong(base + ID),
+                string(base + NOMBRE_OFFSET),
+                Double.isNaN(precio) ? null : precio,
+                categoria(base),
+                fecha == NULL_LONG ? null : LocalDate.ofEpochDay(fecha),
+                fromMicros(buffer.getLong(base + CREATED_AT)),
+                fromMicros(buffer.getLong(base + UPDATED_AT)));
+    }
+
+    private Categoria categoria(int base) {
+        long id = buffer.getLong(base + CATEGORIA_ID);
+        String nombre = string(base + CATEGORIA_OFFSET);
+        if (id == NULL_LONG && nombre == null) {
+            return null;
+        }
+        Categoria categoria = new Categoria();
+        categoria.setId(id == NULL_LONG ? null : id);
+        categoria.setNombre(nombre);
+        return categoria;
+    }
+
+    private String string(int posicion) {
+        int offset = buffer.getInt(posicion);
+        if (offset < 0) {
+            return null;
+        }
+        int length = buffer.getInt(posicion + 4);
+        byte[] utf8 = new byte[length];
+        buffer.get(heapStart + offset, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static int offset(int i) {
+        return HEADER_SIZE + RECORD_SIZE * i;
+    }
+}
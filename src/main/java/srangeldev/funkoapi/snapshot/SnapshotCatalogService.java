@@ -0,0 +1,184 @@
+package srangeldev.funkoapi.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import srangeldev.funkoapi.dto.FunkoRequestDto;
+import srangeldev.funkoapi.dto.FunkoResponseDto;
+import srangeldev.funkoapi.exceptions.FunkoNotFoundException;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
+import srangeldev.funkoapi.services.FunkoService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de sólo lectura para réplicas en el borde (perfil "edge"): sirve el catálogo desde la
+ * instantánea mapeada en memoria en lugar de desde la BBDD.
+ *
+ * Cada cierto tiempo comprueba si se ha publicado un fichero nuevo (el publicador lo renombra de forma
+ * atómica sobre la ruta) y, si es así, lo abre y cambia la referencia: las peticiones en curso terminan
+ * con la instantánea anterior y las siguientes ven la nueva, sin cerrojos. Las escrituras responden 405.
+ */
+@Slf4j
+@Service
+@Primary
+@Profile("edge")
+public class SnapshotCatalogService implements FunkoService {
+
+    // Instantánea y atributos del fichero del que se leyó (para detectar que se ha publicado otro)
+    private record Actual(MappedCatalogSnapshot snapshot, Object fileKey, long modificado, long tamano) {
+    }
+
+    private final Path path;
+    private final AtomicReference<Actual> actual = new AtomicReference<>();
+
+    public SnapshotCatalogService(@Value("${funkoapi.snapshot.path:./snapshots/catalog.snap}") Path path) {
+        this.path = path;
+        reloadIfChanged();
+        if (actual.get() == null) {
+            throw new IllegalStateException("No hay instantánea del catálogo en " + path.toAbsolutePath());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${funkoapi.snapshot.poll:PT5S}")
+    public void reloadIfChanged() {
+        try {
+            if (!Files.isRegularFile(path)) {
+                return;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            Actual previa = actual.get();
+            if (previa != null && Objects.equals(previa.fileKey(), attrs.fileKey())
+                    && previa.modificado() == attrs.lastModifiedTime().toMillis() && previa.tamano() == attrs.size()) {
+                return;
+            }
+            MappedCatalogSnapshot nueva = MappedCatalogSnapshot.open(path);
+            actual.set(new Actual(nueva, attrs.fileKey(), attrs.lastModifiedTime().toMillis(), attrs.size()));
+            log.info("Instantánea del catálogo cargada: {} Funkos desde {}", nueva.size(), path.toAbsolutePath());
+        } catch (IOException e) {
+            // Se sigue sirviendo la instantánea anterior
+            log.warn("No se pudo cargar la instantánea {}: {}", path, e.getMessage());
+        }
+    }
+
+    private MappedCatalogSnapshot snapshot() {
+        return actual.get().snapshot();
+    }
+
+    @Override
+    public List<Funko> getAll() {
+        MappedCatalogSnapshot s = snapshot();
+        List<Funko> funkos = new ArrayList<>(s.size());
+        for (int i = 0; i < s.size(); i++) {
+            funkos.add(s.funko(i));
+        }
+        return funkos;
+    }
+
+    @Override
+    public Stream<FunkoResponseDto> streamAllResponses() {
+        // Cada fila se decodifica cuando el serializador llega a ella
+        MappedCatalogSnapshot s = snapshot();
+        return IntStream.range(0, s.size()).mapToObj(s::response);
+    }
+
+    @Override
+    public Funko getById(Long id) {
+        MappedCatalogSnapshot s = snapshot();
+        int i = s.indexOf(id);
+        if (i < 0) {
+            throw new FunkoNotFoundException(id);
+        }
+        return s.funko(i);
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamAllFields(Set<CampoFunko> campos) {
+        MappedCatalogSnapshot s = snapshot();
+        return IntStream.range(0, s.size()).mapToObj(i -> CampoFunko.recortar(s.funko(i), campos));
+    }
+
+    @Override
+    public Map<String, Object> getFieldsById(Long id, Set<CampoFunko> campos) {
+        return CampoFunko.recortar(getById(id), campos);
+    }
+
+    @Override
+    public Map<Long, Funko> getByIds(Collection<Long> ids) {
+        // La misma instantánea para todos los ids: la respuesta es coherente aunque se cambie a mitad
+        MappedCatalogSnapshot s = snapshot();
+        Map<Long, Funko> encontrados = new HashMap<>();
+        for (Long id : ids) {
+            int i = s.indexOf(id);
+            if (i >= 0) {
+                encontrados.put(id, s.funko(i));
+            }
+        }
+        return encontrados;
+    }
+
+    @Override
+    public List<Funko> getModifiedSince(LocalDateTime since) {
+        if (since == null) {
+            return getAll();
+        }
+        MappedCatalogSnapshot s = snapshot();
+        List<Funko> funkos = new ArrayList<>();
+        for (int i = 0; i < s.size(); i++) {
+            if (s.updatedAfter(i, since)) {
+                funkos.add(s.funko(i));
+            }
+        }
+        return funkos;
+    }
+
+    @Override
+    public List<Long> getDeletedSince(LocalDateTime since) {
+        // La instantánea sólo contiene Funkos vivos: no hay tombstones que devolver
+        return List.of();
+    }
+
+    @Override
+    public Funko create(FunkoRequestDto dto) {
+        throw soloLectura();
+    }
+
+    @Override
+    public Funko update(Long id, FunkoRequestDto dto) {
+        throw soloLectura();
+    }
+
+    @Override
+    public Funko patch(Long id, FunkoRequestDto dto) {
+        throw soloLectura();
+    }
+
+    @Override
+    public void delete(Long id) {
+        throw soloLectura();
+    }
+
+    private static ResponseStatusException soloLectura() {
+        return new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED, "Réplica de sólo lectura");
+    }
+}
@@ -0,0 +1,53 @@
+package srangeldev.funkoapi.snapshot;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Formato binario de la instantánea del catálogo.
+ *
+ * <pre>
+ * cabecera (16 bytes): magic "FNKS" | versión | número de filas | reservado
+ * filas (64 bytes cada una, ordenadas por id):
+ *   0 id | 8 precio | 16 fechaLanzamiento (día epoch) | 24 createdAt (µs epoch) | 32 updatedAt (µs epoch)
+ *   40 categoriaId | 48 offset nombre | 52 longitud nombre | 56 offset categoria | 60 longitud categoria
+ * heap de cadenas: UTF-8, referenciadas desde las filas
+ * </pre>
+ *
+ * Los nulos se codifican como NaN (precio) o Long.MIN_VALUE (fechas y categoriaId).
+ * Todo en big-endian, el orden por defecto de ByteBuffer.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x464E4B53; // "FNKS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 64;
+
+    static final int ID = 0;
+    static final int PRECIO = 8;
+    static final int FECHA_LANZAMIENTO = 16;
+    static final int CREATED_AT = 24;
+    static final int UPDATED_AT = 32;
+    static final int CATEGORIA_ID = 40;
+    static final int NOMBRE_OFFSET = 48;
+    static final int NOMBRE_LENGTH = 52;
+    static final int CATEGORIA_OFFSET = 56;
+    static final int CATEGORIA_LENGTH = 60;
+
+    static final long NULL_LONG = Long.MIN_VALUE;
+
+    private SnapshotFormat() {
+    }
+
+    static long toMicros(LocalDateTime fecha) {
+        return fecha == null ? NULL_LONG
+                : ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), fecha);
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return micros == NULL_LONG ? null
+                : LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS);
+    }
+}
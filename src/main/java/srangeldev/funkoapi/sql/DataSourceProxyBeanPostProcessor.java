@@ -0,0 +1,45 @@
+package srangeldev.funkoapi.sql;
+
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource de la aplicación con datasource-proxy para contar sentencias y filas
+ * y para abrir un span por sentencia.
+ *
+ * Sólo se envuelven los DataSource "físicos": los de enrutado o los proxies de Spring que delegan
+ * en otro DataSource (p. ej. primario/réplica) se saltan, porque sus destinos ya van envueltos
+ * y cada sentencia se contaría dos veces.
+ */
+public class DataSourceProxyBeanPostProcessor implements BeanPostProcessor {
+
+    private final QueryCountListener listener = new QueryCountListener();
+    private final QueryObservationListener observationListener;
+
+    public DataSourceProxyBeanPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationListener = new QueryObservationListener(
+                () -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                && !(bean instanceof AbstractRoutingDataSource) && !(bean instanceof DelegatingDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(listener)
+                    .listener(observationListener)
+                    .methodListener(listener)
+                    .proxyResultSet()
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,52 @@
+package srangeldev.funkoapi.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Listener de datasource-proxy que vuelca cada sentencia (y cada fila leída) en las
+ * {@link QueryStats} del hilo actual. Si nadie está midiendo, no hace nada.
+ */
+public class QueryCountListener implements QueryExecutionListener, MethodExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats stats = QueryStatsHolder.current();
+        if (stats != null) {
+            stats.queryStarted();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats stats = QueryStatsHolder.current();
+        if (stats != null) {
+            // En un batch cuentan todas las sentencias agrupadas
+            stats.queryFinished(Math.max(1, execInfo.getBatchSize()));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        // Nada que hacer antes de la llamada
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        // Contamos las filas por cada ResultSet.next() que devuelve true
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            QueryStats stats = QueryStatsHolder.current();
+            if (stats != null) {
+                stats.rowFetched();
+            }
+        }
+    }
+}
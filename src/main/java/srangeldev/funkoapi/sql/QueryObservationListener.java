@@ -0,0 +1,53 @@
+package srangeldev.funkoapi.sql;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Listener de datasource-proxy que abre una Observation ("funko.jdbc") por cada sentencia,
+ * para que las consultas a la BBDD aparezcan como spans hijos del servicio en las trazas.
+ */
+public class QueryObservationListener implements QueryExecutionListener {
+
+    private static final String OBSERVATION_KEY = QueryObservationListener.class.getName();
+
+    private final Supplier<ObservationRegistry> registry;
+
+    // Recibimos un Supplier porque el DataSource se crea antes que el ObservationRegistry
+    public QueryObservationListener(Supplier<ObservationRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Observation observation = Observation.createNotStarted("funko.jdbc", registry.get())
+                .contextualName("jdbc " + execInfo.getStatementType().name().toLowerCase())
+                .lowCardinalityKeyValue("datasource", String.valueOf(execInfo.getDataSourceName()))
+                .highCardinalityKeyValue("sql", queryInfoList.stream()
+                        .map(QueryInfo::getQuery)
+                        .collect(Collectors.joining("; ")))
+                .start();
+        execInfo.addCustomValue(OBSERVATION_KEY, observation.openScope());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Observation.Scope scope = execInfo.getCustomValue(OBSERVATION_KEY, Observation.Scope.class);
+        if (scope == null) {
+            return;
+        }
+        Observation observation = scope.getCurrentObservation();
+        scope.close();
+        if (execInfo.getThrowable() != null) {
+            observation.error(execInfo.getThrowable());
+        }
+        observation.stop();
+    }
+}
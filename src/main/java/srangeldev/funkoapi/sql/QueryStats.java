@@ -0,0 +1,43 @@
+package srangeldev.funkoapi.sql;
+
+/**
+ * Contadores de SQL de una petición: sentencias ejecutadas, filas leídas y tiempo JDBC.
+ *
+ * Cada instancia pertenece a un único hilo (ver {@link QueryStatsHolder}), por eso no necesita sincronización.
+ */
+public class QueryStats {
+
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private long startNanos;
+
+    void queryStarted() {
+        startNanos = System.nanoTime();
+    }
+
+    void queryFinished(int batchSize) {
+        statements += batchSize;
+        jdbcNanos += System.nanoTime() - startNanos;
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+}
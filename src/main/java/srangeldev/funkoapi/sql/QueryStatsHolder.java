@@ -0,0 +1,38 @@
+package srangeldev.funkoapi.sql;
+
+/**
+ * Asocia unas {@link QueryStats} al hilo actual.
+ *
+ * Lo usa el filtro HTTP para medir cada petición, pero también sirve en los tests:
+ * <pre>
+ *     QueryStats stats = QueryStatsHolder.start();
+ *     service.getAll();
+ *     assertEquals(1, QueryStatsHolder.stop().getStatements());
+ * </pre>
+ */
+public final class QueryStatsHolder {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private QueryStatsHolder() {
+    }
+
+    // Empieza a contar en el hilo actual (descarta lo anterior)
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    // Estadísticas en curso, o null si no se está midiendo
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    // Deja de contar y devuelve lo acumulado (o null si no se estaba midiendo)
+    public static QueryStats stop() {
+        QueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+}
@@ -0,0 +1,96 @@
+package srangeldev.funkoapi.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que mide las sentencias SQL de cada petición HTTP.
+ *
+ * - Registra las métricas "funko.sql.statements", "funko.sql.rows" y "funko.sql.time" por URI.
+ * - Avisa (WARN) cuando una petición supera el presupuesto de consultas configurado.
+ * - En modo debug añade las cabeceras X-SQL-* a la respuesta. Para eso hay que retener el cuerpo, así que
+ *   las respuestas que se escriben en streaming (SSE de /funkos/events y los listados) no las llevan.
+ */
+@Slf4j
+public class QueryTrackingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER_STATEMENTS = "X-SQL-Statements";
+    public static final String HEADER_ROWS = "X-SQL-Rows";
+    public static final String HEADER_TIME = "X-SQL-Time-Ms";
+
+    private final MeterRegistry registry;
+    private final int queryBudget;
+    private final boolean debugHeaders;
+
+    public QueryTrackingFilter(MeterRegistry registry, int queryBudget, boolean debugHeaders) {
+        this.registry = registry;
+        this.queryBudget = queryBudget;
+        this.debugHeaders = debugHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStatsHolder.start();
+        try {
+            if (debugHeaders && !esStreaming(request)) {
+                // Retenemos el cuerpo para poder añadir las cabeceras cuando ya conocemos los totales
+                ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                chain.doFilter(request, wrapper);
+                wrapper.setHeader(HEADER_STATEMENTS, String.valueOf(stats.getStatements()));
+                wrapper.setHeader(HEADER_ROWS, String.valueOf(stats.getRows()));
+                wrapper.setHeader(HEADER_TIME, String.format(Locale.ROOT, "%.3f", stats.getJdbcMillis()));
+                wrapper.copyBodyToResponse();
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            QueryStatsHolder.stop();
+            record(request, stats);
+        }
+    }
+
+    // SSE o listado completo (GET /funkos, con o sin ?fields=): se escriben según se generan
+    static boolean esStreaming(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.endsWith("/events")
+                || ("GET".equals(request.getMethod()) && (path.equals("/funkos") || path.equals("/funkos/"))
+                && request.getParameter("ids") == null);
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("funko.sql.statements").tag("uri", uri).register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("funko.sql.rows").tag("uri", uri).register(registry)
+                .record(stats.getRows());
+        Timer.builder("funko.sql.time").tag("uri", uri).register(registry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > queryBudget) {
+            log.warn("{} {} ejecutó {} sentencias SQL (presupuesto {})",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), queryBudget);
+        }
+    }
+}
@@ -6,4 +6,6 @@ INSERT INTO categorias (nombre) VALUES ('ANIME');
 INSERT INTO categorias (nombre) VALUES ('OTROS');
 
 INSERT INTO funkos (nombre, precio, categoria_id) VALUES ('Iron Man', 14.99, 1);
-INSERT INTO funkos (nombre, precio, categoria_id) VALUES ('Darth Vader', 15.99, 2);
\ No newline at end of file
+INSERT INTO funkos (nombre, precio, categoria_id) VALUES ('Darth Vader', 15.99, 2);
+-- Las filas de este script no pasan por la auditoría JPA: les damos fecha para que entren en la sincronización incremental
+UPDATE funkos SET created_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP WHERE updated_at IS NULL;
@@ -0,0 +1,35 @@
+-- Esquema del modo persistente (perfil "persistent"). Debe coincidir con las entidades JPA:
+-- Hibernate lo valida al arrancar (ddl-auto=validate) en lugar de crearlo.
+
+CREATE TABLE categorias (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_categorias_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE funkos (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    uuid              UUID,
+    nombre            VARCHAR(255) NOT NULL,
+    precio            DOUBLE PRECISION,
+    categoria_id      BIGINT       NOT NULL,
+    fecha_lanzamiento DATE,
+    created_at        TIMESTAMP(6),
+    updated_at        TIMESTAMP(6),
+    deleted           BOOLEAN DEFAULT FALSE NOT NULL,
+    deleted_at        TIMESTAMP(6),
+    CONSTRAINT uk_funkos_uuid UNIQUE (uuid),
+    CONSTRAINT fk_funkos_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+);
+
+CREATE INDEX idx_funkos_deleted_updated_at ON funkos (deleted, updated_at);
+CREATE INDEX idx_funkos_deleted_deleted_at ON funkos (deleted, deleted_at);
+
+-- Outbox del feed de cambios
+CREATE TABLE funko_cambios (
+    seq      BIGINT PRIMARY KEY,
+    tipo     ENUM ('CREATE', 'UPDATE', 'PATCH', 'DELETE') NOT NULL,
+    funko_id BIGINT       NOT NULL,
+    fecha    TIMESTAMP(6) NOT NULL,
+    payload  CHARACTER LARGE OBJECT NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Los mismos datos de ejemplo que data.sql, pero cargados una única vez (no en cada arranque)
+INSERT INTO categorias (nombre) VALUES ('MARVEL');
+INSERT INTO categorias (nombre) VALUES ('STAR_WARS');
+INSERT INTO categorias (nombre) VALUES ('DISNEY');
+INSERT INTO categorias (nombre) VALUES ('ANIME');
+INSERT INTO categorias (nombre) VALUES ('OTROS');
+
+INSERT INTO funkos (nombre, precio, categoria_id, created_at, updated_at)
+VALUES ('Iron Man', 14.99, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO funkos (nombre, precio, categoria_id, created_at, updated_at)
+VALUES ('Darth Vader', 15.99, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
@@ -0,0 +1,2 @@
+-- Bloqueo optimista de los Funkos: una escritura concurrente no puede resucitar una fila borrada
+ALTER TABLE funkos ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
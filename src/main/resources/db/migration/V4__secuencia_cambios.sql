@@ -0,0 +1,4 @@
+-- Secuencia del feed de cambios en la BBDD: varios nodos escriben en la misma outbox sin repetir seq.
+-- Empieza después de la mayor ya guardada
+CREATE SEQUENCE funko_cambios_seq START WITH 1;
+ALTER SEQUENCE funko_cambios_seq RESTART WITH (SELECT COALESCE(MAX(seq), 0) + 1 FROM funko_cambios);
@@ -0,0 +1,72 @@
+package srangeldev.funkoapi.admin;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdminTokenFilterTest {
+
+    private final FilterChain chain = mock(FilterChain.class);
+
+    @Test
+    @DisplayName("Con el token correcto la petición llega al endpoint")
+    void validTokenPasses() throws Exception {
+        // Arrange
+        AdminTokenFilter filter = new AdminTokenFilter("secreto");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/backup");
+        request.addHeader(AdminTokenFilter.HEADER_ADMIN_TOKEN, "secreto");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verify(chain).doFilter(request, response);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Sin token o con un token incorrecto se responde 401")
+    void missingOrWrongTokenIsRejected() throws Exception {
+        // Arrange
+        AdminTokenFilter filter = new AdminTokenFilter("secreto");
+        MockHttpServletRequest sinToken = new MockHttpServletRequest("POST", "/admin/profiling/start");
+        MockHttpServletRequest incorrecto = new MockHttpServletRequest("POST", "/admin/profiling/start");
+        incorrecto.addHeader(AdminTokenFilter.HEADER_ADMIN_TOKEN, "otro");
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        MockHttpServletResponse segunda = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(sinToken, primera, chain);
+        filter.doFilter(incorrecto, segunda, chain);
+
+        // Assert
+        verify(chain, never()).doFilter(any(), any());
+        assertEquals(401, primera.getStatus());
+        assertEquals(401, segunda.getStatus());
+        assertEquals("application/problem+json", segunda.getContentType());
+    }
+
+    @Test
+    @DisplayName("Sin token configurado se rechaza todo, también la cabecera vacía")
+    void noConfiguredTokenRejectsEverything() throws Exception {
+        // Arrange
+        AdminTokenFilter filter = new AdminTokenFilter("");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/catalog-snapshot");
+        request.addHeader(AdminTokenFilter.HEADER_ADMIN_TOKEN, "");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verify(chain, never()).doFilter(any(), any());
+        assertEquals(401, response.getStatus());
+    }
+}
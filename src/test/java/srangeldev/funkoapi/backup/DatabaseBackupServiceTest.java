@@ -0,0 +1,69 @@
+package srangeldev.funkoapi.backup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DatabaseBackupServiceTest {
+
+    @TempDir
+    Path dir;
+
+    // BACKUP TO simulado: crea el fichero que se le pide
+    private JdbcTemplate jdbcTemplate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            Files.writeString(Path.of(sql.substring(sql.indexOf('\'') + 1, sql.lastIndexOf('\''))), "zip");
+            return null;
+        }).when(jdbcTemplate).execute(anyString());
+        return jdbcTemplate;
+    }
+
+    @Test
+    @DisplayName("Tras una copia sólo se conservan las últimas 'keep'")
+    void keepsOnlyTheNewestBackups() throws Exception {
+        // Arrange
+        Files.writeString(dir.resolve("funkos-20200101-000000-000.zip"), "zip");
+        Files.writeString(dir.resolve("funkos-20200102-000000-000.zip"), "zip");
+        Files.writeString(dir.resolve("funkos-20200103-000000-000.zip"), "zip");
+        DatabaseBackupService service = new DatabaseBackupService(jdbcTemplate(), dir, 2, Duration.ZERO);
+
+        // Act
+        Path nueva = service.backup().orElseThrow();
+
+        // Assert
+        List<Path> copias = service.list();
+        assertEquals(2, copias.size());
+        assertEquals(nueva.getFileName(), copias.get(0).getFileName());
+        assertEquals("funkos-20200103-000000-000.zip", copias.get(1).getFileName().toString());
+    }
+
+    @Test
+    @DisplayName("Una segunda copia antes de min-interval se rechaza sin tocar la BBDD")
+    void rejectsBackupsTooCloseTogether() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = jdbcTemplate();
+        DatabaseBackupService service = new DatabaseBackupService(jdbcTemplate, dir, 7, Duration.ofHours(1));
+        service.backup();
+
+        // Act
+        Optional<Path> segunda = service.backup();
+
+        // Assert
+        assertTrue(segunda.isEmpty());
+        assertTrue(service.secondsUntilNext() > 0);
+        verify(jdbcTemplate, times(1)).execute(anyString());
+    }
+}
@@ -0,0 +1,110 @@
+package srangeldev.funkoapi.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    // Dos "réplicas" que comparten el mismo transporte en memoria
+    private Cache nodoA;
+    private Cache nodoB;
+
+    @BeforeEach
+    void setUp() {
+        LocalInvalidationTransport transport = new LocalInvalidationTransport();
+        nodoA = nodo(transport).getCache("funkos");
+        nodoB = nodo(transport).getCache("funkos");
+    }
+
+    private InstrumentedCacheManager nodo(CacheInvalidationTransport transport) {
+        return new InstrumentedCacheManager(new ConcurrentMapCacheManager("funkos"), ObservationRegistry.NOOP,
+                new SimpleMeterRegistry(), new CacheInvalidationBus(transport));
+    }
+
+    @Test
+    @DisplayName("put() en un nodo desaloja la clave en el otro y conserva la propia")
+    void putInvalidatesOtherNodes() {
+        // Arrange: relleno sin avisar (un put() del otro nodo desalojaría la copia recién guardada)
+        nodoA.putIfAbsent(1L, "viejo");
+        nodoB.putIfAbsent(1L, "viejo");
+
+        // Act
+        nodoA.put(1L, "nuevo");
+
+        // Assert
+        assertEquals("nuevo", nodoA.get(1L, String.class));
+        assertNull(nodoB.get(1L), "La copia obsoleta del otro nodo debe desalojarse");
+    }
+
+    @Test
+    @DisplayName("Dentro de una transacción put() sólo se aplica y se avisa al confirmar")
+    void putInsideTransactionWaitsForCommit() {
+        // Arrange: relleno sin avisar (un put() del otro nodo desalojaría la copia recién guardada)
+        nodoA.putIfAbsent(1L, "viejo");
+        nodoB.putIfAbsent(1L, "viejo");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            nodoA.put(1L, "nuevo");
+
+            // Assert: antes del commit nadie ve el cambio ni recibe la invalidación
+            assertEquals("viejo", nodoA.get(1L, String.class));
+            assertEquals("viejo", nodoB.get(1L, String.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals("nuevo", nodoA.get(1L, String.class));
+            assertNull(nodoB.get(1L), "Tras el commit la copia del otro nodo debe desalojarse");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("putIfAbsent() (relleno tras lectura) no invalida a los demás nodos")
+    void putIfAbsentDoesNotBroadcast() {
+        // Arrange
+        nodoB.putIfAbsent(2L, "cargado");
+
+        // Act
+        nodoA.putIfAbsent(2L, "cargado");
+
+        // Assert
+        assertEquals("cargado", nodoB.get(2L, String.class));
+    }
+
+    @Test
+    @DisplayName("clear() vacía la caché en todos los nodos")
+    void clearInvalidatesEverything() {
+        // Arrange
+        nodoB.putIfAbsent(3L, "x");
+
+        // Act
+        nodoA.clear();
+
+        // Assert
+        assertNull(nodoB.get(3L));
+    }
+
+    @Test
+    @DisplayName("El mensaje se codifica y decodifica sin perder el tipo de la clave")
+    void encodeDecodeRoundTrip() {
+        // Arrange
+        CacheInvalidation original = new CacheInvalidation("nodo-1", "funkos", 42L);
+
+        // Act
+        byte[] data = original.encode();
+        CacheInvalidation decoded = CacheInvalidation.decode(data, 0, data.length);
+
+        // Assert
+        assertEquals(original, decoded);
+    }
+}
@@ -0,0 +1,69 @@
+package srangeldev.funkoapi.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import srangeldev.funkoapi.repositories.FunkoStore;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExistingFunkoIdsTest {
+
+    private final FunkoStore repository = mock(FunkoStore.class);
+    private final ExistingFunkoIds ids =
+            new ExistingFunkoIds(repository, new CacheInvalidationBus(new LocalInvalidationTransport()), 1000, 0.001);
+
+    @Test
+    @DisplayName("Un alta durante el rebuild llega al filtro nuevo")
+    void addDuringRebuildIsKept() {
+        // Arrange: la consulta de ids ya se hizo cuando llega el alta del id 500
+        when(repository.count()).thenReturn(2L);
+        when(repository.findAllIds()).thenAnswer(inv -> {
+            ids.add(500L);
+            return List.of(1L, 2L);
+        });
+
+        // Act
+        ids.rebuild();
+
+        // Assert
+        assertTrue(ids.mightExist(1L));
+        assertTrue(ids.mightExist(500L), "El alta concurrente no debe perderse al sustituir el filtro");
+    }
+
+    @Test
+    @DisplayName("Después del rebuild las altas se anotan en el filtro")
+    void addAfterRebuild() {
+        // Arrange
+        when(repository.count()).thenReturn(0L);
+        when(repository.findAllIds()).thenReturn(List.of());
+        ids.rebuild();
+
+        // Act
+        ids.add(7L);
+
+        // Assert
+        assertTrue(ids.mightExist(7L));
+    }
+
+    @Test
+    @DisplayName("Con escrituras en otros nodos un id desconocido no se descarta")
+    void remoteWritesDoNotTrustNegatives() {
+        // Arrange: un transporte entre nodos cuya invalidación del alta 9 nunca llega
+        CacheInvalidationBus bus = new CacheInvalidationBus(new LocalInvalidationTransport() {
+            @Override
+            public boolean reachesOtherNodes() {
+                return true;
+            }
+        });
+        ExistingFunkoIds distribuido = new ExistingFunkoIds(repository, bus, 1000, 0.001);
+        when(repository.count()).thenReturn(1L);
+        when(repository.findAllIds()).thenReturn(List.of(1L));
+        distribuido.rebuild();
+
+        // Act & Assert
+        assertTrue(distribuido.mightExist(9L), "Debe confirmarse en el primario, no dar 404");
+    }
+}
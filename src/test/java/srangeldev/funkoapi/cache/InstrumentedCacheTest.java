@@ -0,0 +1,72 @@
+package srangeldev.funkoapi.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedCacheTest {
+
+    private final CaffeineCache caffeine =
+            new CaffeineCache("funkos", Caffeine.newBuilder().recordStats().build());
+    private final InstrumentedCache cache = new InstrumentedCache(caffeine, ObservationRegistry.NOOP,
+            new SimpleMeterRegistry(), new CacheInvalidationBus(new LocalInvalidationTransport()));
+
+    @Test
+    @DisplayName("get(key, loader) cuenta un solo fallo y luego un acierto")
+    void loadCountsOneMissThenHit() {
+        // Act
+        String primera = cache.get(1L, () -> "cargado");
+        String segunda = cache.get(1L, () -> "otra carga");
+
+        // Assert
+        assertEquals("cargado", primera);
+        assertEquals("cargado", segunda);
+        assertEquals(1, caffeine.getNativeCache().stats().missCount());
+        assertEquals(1, caffeine.getNativeCache().stats().hitCount());
+    }
+
+    @Test
+    @DisplayName("get(key, loader) no guarda un valor inexistente")
+    void nullIsNotCached() {
+        // Act
+        Object valor = cache.get(2L, () -> null);
+
+        // Assert
+        assertNull(valor);
+        assertNull(caffeine.get(2L), "Un id inexistente no debe quedar en la caché");
+    }
+
+    @Test
+    @DisplayName("Una carga que se cruza con un put no pisa el valor nuevo")
+    void loadDoesNotOverwriteConcurrentPut() {
+        // Act: mientras se carga el valor antiguo, una escritura confirma el nuevo
+        String leido = cache.get(3L, () -> {
+            cache.put(3L, "nuevo");
+            return "antiguo";
+        });
+
+        // Assert
+        assertEquals("antiguo", leido);
+        assertEquals("nuevo", caffeine.get(3L).get());
+    }
+
+    @Test
+    @DisplayName("Una carga que se cruza con una invalidación no se guarda")
+    void loadIsDroppedAfterConcurrentInvalidation() {
+        // Act: la invalidación (aquí remota) llega con la carga en curso
+        cache.get(4L, () -> {
+            cache.applyRemote(4L);
+            return "antiguo";
+        });
+
+        // Assert
+        assertNull(caffeine.get(4L), "El valor leído antes de la invalidación no debe quedar en caché");
+        assertEquals("recargado", cache.get(4L, () -> "recargado"));
+        assertEquals("recargado", caffeine.get(4L).get());
+    }
+}
@@ -0,0 +1,54 @@
+package srangeldev.funkoapi.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongBloomFilterTest {
+
+    @Test
+    @DisplayName("No hay falsos negativos para las claves insertadas")
+    void noFalseNegatives() {
+        // Arrange
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+
+        // Act
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        // Assert
+        for (long id = 1; id <= 10_000; id++) {
+            assertTrue(filter.mightContain(id), "El id " + id + " debe estar en el filtro");
+        }
+    }
+
+    @Test
+    @DisplayName("La tasa de falsos positivos se mantiene cerca de la configurada")
+    void falsePositiveRateIsBounded() {
+        // Arrange
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        // Act
+        int falsosPositivos = 0;
+        for (long id = 1_000_001; id <= 1_100_000; id++) {
+            if (filter.mightContain(id)) {
+                falsosPositivos++;
+            }
+        }
+
+        // Assert (margen x2 sobre el 1% teórico)
+        assertTrue(falsosPositivos < 2_000, "Demasiados falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    @DisplayName("El constructor valida los parámetros")
+    void validatesArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(100, 1.5));
+    }
+}
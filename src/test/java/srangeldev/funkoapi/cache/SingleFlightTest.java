@@ -0,0 +1,68 @@
+package srangeldev.funkoapi.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    @DisplayName("Las cargas concurrentes de la misma clave se ejecutan una sola vez")
+    void concurrentLoadsAreDeduplicated() throws Exception {
+        // Arrange
+        int hilos = 8;
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+
+        // Act
+        List<Future<String>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < hilos; i++) {
+                resultados.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                    cargas.incrementAndGet();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return "Funko 1";
+                })));
+            }
+            // Esperamos a que todos los demás estén esperando a la carga en curso
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.getDeduplicated() < hilos - 1 && System.nanoTime() < limite) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+            for (Future<String> resultado : resultados) {
+                assertEquals("Funko 1", resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(1, cargas.get(), "Sólo debe ejecutarse una carga");
+        assertEquals(hilos - 1, singleFlight.getDeduplicated());
+    }
+
+    @Test
+    @DisplayName("La excepción de la carga se propaga y la clave queda libre")
+    void failureIsPropagatedAndKeyReleased() throws Exception {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> singleFlight.load(2L, () -> {
+            throw new IllegalStateException("fallo");
+        }));
+        assertEquals("ok", singleFlight.load(2L, () -> "ok"));
+        assertEquals(2, singleFlight.getLoads());
+    }
+}
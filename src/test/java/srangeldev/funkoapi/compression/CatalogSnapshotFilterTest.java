@@ -0,0 +1,162 @@
+package srangeldev.funkoapi.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotFilterTest {
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicInteger llamadas = new AtomicInteger();
+    private final CatalogSnapshotFilter filter =
+            new CatalogSnapshotFilter(version::get, 16, Duration.ofMinutes(1), 1024, new SimpleMeterRegistry());
+
+    // Cadena que simula el controlador: una lista JSON que lleva la versión en el contenido
+    private final FilterChain catalogo = (req, res) -> {
+        llamadas.incrementAndGet();
+        res.setContentType("application/json");
+        res.getWriter().write("[{\"id\":1,\"nombre\":\"Funko 1\",\"version\":" + version.get() + "}]");
+    };
+
+    private MockHttpServletResponse get(String accept, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/funkos");
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, catalogo);
+        return response;
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Mientras no cambia la versión, el catálogo se sirve de la instantánea sin llegar al controlador")
+    void servesSnapshotForSameVersion() throws Exception {
+        // Act
+        MockHttpServletResponse primera = get(null, "gzip, deflate");
+        MockHttpServletResponse segunda = get("application/json", "gzip");
+
+        // Assert: la primera se envía tal cual la genera el controlador (la comprimiría Tomcat)
+        assertEquals(1, llamadas.get());
+        assertNull(primera.getHeader("Content-Encoding"));
+        assertEquals("gzip", segunda.getHeader("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", segunda.getHeader("Vary"));
+        assertEquals(primera.getContentAsString(), gunzip(segunda.getContentAsByteArray()));
+    }
+
+    @Test
+    @DisplayName("Sin gzip en Accept-Encoding se envía la variante sin comprimir")
+    void servesPlainVariant() throws Exception {
+        // Act
+        get(null, "gzip");
+        MockHttpServletResponse response = get(null, "gzip;q=0");
+
+        // Assert
+        assertNull(response.getHeader("Content-Encoding"));
+        assertTrue(response.getContentAsString().contains("\"version\":1"));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Un cambio de versión del catálogo regenera la instantánea")
+    void rebuildsOnNewVersion() throws Exception {
+        // Arrange
+        get(null, "gzip");
+
+        // Act
+        version.incrementAndGet();
+        MockHttpServletResponse response = get(null, "gzip");
+
+        // Assert
+        assertEquals(2, llamadas.get());
+        assertTrue(response.getContentAsString().contains("\"version\":2"));
+    }
+
+    @Test
+    @DisplayName("Una instantánea caducada se regenera aunque no cambie la versión")
+    void rebuildsExpiredSnapshot() throws Exception {
+        // Arrange
+        CatalogSnapshotFilter sinTtl =
+                new CatalogSnapshotFilter(version::get, 16, Duration.ZERO, 1024, new SimpleMeterRegistry());
+
+        // Act
+        sinTtl.doFilter(new MockHttpServletRequest("GET", "/funkos"), new MockHttpServletResponse(), catalogo);
+        sinTtl.doFilter(new MockHttpServletRequest("GET", "/funkos"), new MockHttpServletResponse(), catalogo);
+
+        // Assert
+        assertEquals(2, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Un catálogo mayor que maxSize se envía entero pero no deja instantánea")
+    void streamsWithoutSnapshotWhenTooLarge() throws Exception {
+        // Arrange
+        CatalogSnapshotFilter pequeno =
+                new CatalogSnapshotFilter(version::get, 16, Duration.ofMinutes(1), 32, new SimpleMeterRegistry());
+
+        // Act
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        pequeno.doFilter(new MockHttpServletRequest("GET", "/funkos"), primera, catalogo);
+        pequeno.doFilter(new MockHttpServletRequest("GET", "/funkos"), new MockHttpServletResponse(), catalogo);
+
+        // Assert
+        assertTrue(primera.getContentAsString().endsWith("\"version\":1}]"));
+        assertEquals(2, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Las peticiones de otros formatos o con parámetros no usan la instantánea")
+    void skipsNonJsonAndQueries() throws Exception {
+        // Act
+        get("application/cbor", "gzip");
+        get("application/cbor", "gzip");
+        MockHttpServletRequest conIds = new MockHttpServletRequest("GET", "/funkos");
+        conIds.setQueryString("ids=1,2");
+        filter.doFilter(conIds, new MockHttpServletResponse(), catalogo);
+
+        // Assert
+        assertEquals(3, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Sólo se usa la instantánea cuando JSON es el formato preferido en Accept")
+    void servesSnapshotOnlyWhenJsonIsPreferred() {
+        assertFalse(aceptaJson("application/cbor, application/json;q=0.1"));
+        assertFalse(aceptaJson("application/x-jackson-smile, */*"));
+        assertFalse(aceptaJson("application/json;q=0"));
+        assertFalse(aceptaJson("text/html"));
+        assertTrue(aceptaJson("application/json;q=0.9, application/cbor;q=0.5"));
+        assertTrue(aceptaJson("text/html, */*;q=0.8"));
+        assertTrue(aceptaJson("application/*, application/cbor;q=0.5"));
+        assertTrue(aceptaJson("*/*"));
+        assertTrue(aceptaJson(null));
+    }
+
+    private static boolean aceptaJson(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/funkos");
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        return CatalogSnapshotFilter.aceptaJson(request);
+    }
+}
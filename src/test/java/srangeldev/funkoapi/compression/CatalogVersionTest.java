@@ -0,0 +1,64 @@
+package srangeldev.funkoapi.compression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+
+    private final AtomicLong compartida = new AtomicLong(5);
+    private final AtomicLong local = new AtomicLong(3);
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    private CatalogVersion version(Duration intervalo) {
+        return new CatalogVersion(() -> {
+            consultas.incrementAndGet();
+            return compartida.get();
+        }, local::get, intervalo);
+    }
+
+    @Test
+    @DisplayName("La versión incluye los cambios de otros nodos (recuento de la outbox compartida)")
+    void usesSharedCount() {
+        // Act & Assert
+        assertEquals(5L, version(Duration.ZERO).getAsLong());
+    }
+
+    @Test
+    @DisplayName("Dentro del intervalo no se vuelve a consultar, pero los cambios locales se ven al momento")
+    void refreshesAtMostOncePerInterval() {
+        // Arrange
+        CatalogVersion version = version(Duration.ofMinutes(1));
+        version.getAsLong();
+
+        // Act: este nodo confirma 4 cambios más
+        compartida.set(8);
+        local.set(7);
+        long resultado = version.getAsLong();
+
+        // Assert
+        assertEquals(9L, resultado);
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    @DisplayName("La versión no baja aunque la relectura cuente menos que lo sumado en local")
+    void neverGoesBackwards() {
+        // Arrange
+        CatalogVersion version = version(Duration.ZERO);
+        version.getAsLong();
+        local.set(5);
+        long antes = version.getAsLong();
+
+        // Act: la outbox aún no refleja esos cambios
+        long despues = version.getAsLong();
+
+        // Assert
+        assertTrue(despues >= antes);
+    }
+}
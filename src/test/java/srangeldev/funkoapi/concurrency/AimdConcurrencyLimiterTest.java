@@ -0,0 +1,74 @@
+package srangeldev.funkoapi.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final long RAPIDA = Duration.ofMillis(10).toNanos();
+    private static final long LENTA = Duration.ofSeconds(1).toNanos();
+
+    // Límite inicial 4 (mínimo 2, máximo 10), objetivo 100 ms, escrituras hasta la mitad
+    private final AimdConcurrencyLimiter limiter =
+            new AimdConcurrencyLimiter(4, 2, 10, 0.5, Duration.ofMillis(100), 0.5);
+
+    @Test
+    @DisplayName("Rechaza cuando se alcanza el límite y vuelve a admitir al liberar")
+    void rejectsAtLimit() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(false));
+        }
+
+        // Act + Assert
+        assertFalse(limiter.tryAcquire(false));
+        limiter.release(RAPIDA, false);
+        assertTrue(limiter.tryAcquire(false));
+    }
+
+    @Test
+    @DisplayName("Las escrituras sólo pueden ocupar su fracción del límite")
+    void writesGetOnlyTheirShare() {
+        // Act + Assert
+        assertTrue(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(true));
+        assertFalse(limiter.tryAcquire(true));
+        assertTrue(limiter.tryAcquire(false), "las lecturas siguen teniendo hueco");
+    }
+
+    @Test
+    @DisplayName("Una petición lenta o fallida reduce el límite, sin bajar del mínimo")
+    void slowRequestsDecreaseLimit() {
+        // Act
+        limiter.tryAcquire(false);
+        limiter.release(LENTA, false);
+        limiter.tryAcquire(false);
+        limiter.release(RAPIDA, true);
+
+        // Assert
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Con el límite en uso y latencias buenas, el límite sube poco a poco")
+    void fastRequestsUnderLoadIncreaseLimit() {
+        // Arrange: límite ocupado entero
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(false);
+        }
+
+        // Act: cinco respuestas rápidas (+1/límite cada una) manteniendo el límite lleno
+        for (int i = 0; i < 5; i++) {
+            limiter.release(RAPIDA, false);
+            assertTrue(limiter.tryAcquire(false));
+        }
+
+        // Assert: 4 -> 4,25 -> 4,49 -> 4,71 -> 4,92 -> 5,12
+        assertEquals(5, limiter.getLimit());
+    }
+}
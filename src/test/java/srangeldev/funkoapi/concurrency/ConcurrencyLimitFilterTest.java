@@ -0,0 +1,47 @@
+package srangeldev.funkoapi.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final AimdConcurrencyLimiter limiter = mock(AimdConcurrencyLimiter.class);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("La latencia que ajusta el límite no incluye el tiempo de escribir la respuesta")
+    void latencyExcludesResponseWriting() throws Exception {
+        // Arrange: el cliente tarda 200 ms en recibir el cuerpo
+        when(limiter.tryAcquire(anyBoolean())).thenReturn(true);
+        FilterChain chain = (req, res) -> {
+            res.getOutputStream().write('[');
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            res.getOutputStream().write(']');
+        };
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/funkos"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        ArgumentCaptor<Long> latencia = ArgumentCaptor.forClass(Long.class);
+        verify(limiter).release(latencia.capture(), eq(false));
+        assertTrue(latencia.getValue() < TimeUnit.MILLISECONDS.toNanos(200),
+                "Sólo debe contar el tiempo hasta empezar a escribir");
+    }
+}
@@ -1,6 +1,7 @@
 package srangeldev.funkoapi.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +13,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import srangeldev.funkoapi.dto.FunkoMultiGetRequestDto;
 import srangeldev.funkoapi.dto.FunkoRequestDto;
 import srangeldev.funkoapi.dto.FunkoResponseDto;
 import srangeldev.funkoapi.exceptions.FunkoException;
@@ -19,15 +21,21 @@ import srangeldev.funkoapi.exceptions.FunkoNotFoundException;
 import srangeldev.funkoapi.exceptions.GlobalExceptionHandler;
 import srangeldev.funkoapi.mappers.FunkoMapper;
 import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.CampoFunko;
 import srangeldev.funkoapi.models.enums.Categoria;
 import srangeldev.funkoapi.services.FunkoService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -51,12 +59,23 @@ class FunkoControllerTest {
 
     private ObjectMapper objectMapper;
 
+    // Las categorías son entidades; para estos tests basta con el nombre
+    private static final Categoria SERIES = categoria("SERIES");
+    private static final Categoria PELICULAS = categoria("PELICULAS");
+    private static final Categoria VIDEOJUEGOS = categoria("VIDEOJUEGOS");
+
+    private static Categoria categoria(String nombre) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        return categoria;
+    }
+
     // Datos de prueba
     private final Funko funko1 = new Funko(
             1L,
             "Funko 1",
             19.99,
-            Categoria.SERIES,
+            SERIES,
             LocalDate.of(2020, 1, 1),
             LocalDateTime.now(),
             LocalDateTime.now()
@@ -66,7 +85,7 @@ class FunkoControllerTest {
             2L,
             "Funko 2",
             29.99,
-            Categoria.PELICULAS,
+            PELICULAS,
             LocalDate.of(2021, 2, 2),
             LocalDateTime.now(),
             LocalDateTime.now()
@@ -76,7 +95,7 @@ class FunkoControllerTest {
             1L,
             "Funko 1",
             19.99,
-            Categoria.SERIES,
+            SERIES,
             LocalDate.of(2020, 1, 1),
             LocalDateTime.now(),
             LocalDateTime.now()
@@ -86,7 +105,7 @@ class FunkoControllerTest {
             2L,
             "Funko 2",
             29.99,
-            Categoria.PELICULAS,
+            PELICULAS,
             LocalDate.of(2021, 2, 2),
             LocalDateTime.now(),
             LocalDateTime.now()
@@ -95,7 +114,7 @@ class FunkoControllerTest {
     private final FunkoRequestDto createDTO = new FunkoRequestDto(
             "Nuevo Funko",
             39.99,
-            Categoria.VIDEOJUEGOS,
+            VIDEOJUEGOS,
             LocalDate.of(2022, 3, 3)
     );
 
@@ -119,12 +138,7 @@ class FunkoControllerTest {
         @DisplayName("getAll() devuelve lista de funkos")
         void getAllFunkos() throws Exception {
             // Arrange
-            List<Funko> funkos = Arrays.asList(funko1, funko2);
-            List<FunkoResponseDto> responseDTOs = Arrays.asList(responseDTO1, responseDTO2);
-
-            when(funkoService.getAll()).thenReturn(funkos);
-            when(mapper.toResponse(funko1)).thenReturn(responseDTO1);
-            when(mapper.toResponse(funko2)).thenReturn(responseDTO2);
+            when(funkoService.streamAllResponses()).thenReturn(Stream.of(responseDTO1, responseDTO2));
 
             // Act & Assert
             mockMvc.perform(get("/funkos"))
@@ -136,7 +150,7 @@ class FunkoControllerTest {
                     .andExpect(jsonPath("$[1].id", is(2)))
                     .andExpect(jsonPath("$[1].nombre", is("Funko 2")));
 
-            verify(funkoService).getAll();
+            verify(funkoService).streamAllResponses();
         }
 
         @Test
@@ -153,7 +167,7 @@ class FunkoControllerTest {
                     .andExpect(jsonPath("$.id", is(1)))
                     .andExpect(jsonPath("$.nombre", is("Funko 1")))
                     .andExpect(jsonPath("$.precio", is(19.99)))
-                    .andExpect(jsonPath("$.categoria", is("SERIES")));
+                    .andExpect(jsonPath("$.categoria.nombre", is("SERIES")));
 
             verify(funkoService).getById(1L);
             verify(mapper).toResponse(funko1);
@@ -233,12 +247,7 @@ class FunkoControllerTest {
         @DisplayName("getAll() usando la ruta vacía funciona correctamente")
         void getAllWithEmptyPath() throws Exception {
             // Arrange
-            List<Funko> funkos = Arrays.asList(funko1, funko2);
-            List<FunkoResponseDto> responseDTOs = Arrays.asList(responseDTO1, responseDTO2);
-
-            when(funkoService.getAll()).thenReturn(funkos);
-            when(mapper.toResponse(funko1)).thenReturn(responseDTO1);
-            when(mapper.toResponse(funko2)).thenReturn(responseDTO2);
+            when(funkoService.streamAllResponses()).thenReturn(Stream.of(responseDTO1, responseDTO2));
 
             // Act & Assert - probar la ruta vacía
             mockMvc.perform(get("/funkos/"))
@@ -246,7 +255,101 @@ class FunkoControllerTest {
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                     .andExpect(jsonPath("$", hasSize(2)));
 
-            verify(funkoService).getAll();
+            verify(funkoService).streamAllResponses();
+        }
+
+        @Test
+        @DisplayName("getByIds() devuelve los funkos en el orden pedido y marca los inexistentes")
+        void getByIdsKeepsOrderAndMarksMissing() throws Exception {
+            // Arrange
+            when(funkoService.getByIds(List.of(2L, 99L, 1L))).thenReturn(Map.of(1L, funko1, 2L, funko2));
+            when(mapper.toResponse(funko1)).thenReturn(responseDTO1);
+            when(mapper.toResponse(funko2)).thenReturn(responseDTO2);
+
+            // Act & Assert
+            mockMvc.perform(get("/funkos").param("ids", "2,99,1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(3)))
+                    .andExpect(jsonPath("$[0].id", is(2)))
+                    .andExpect(jsonPath("$[0].funko.nombre", is("Funko 2")))
+                    .andExpect(jsonPath("$[1].id", is(99)))
+                    .andExpect(jsonPath("$[1].found", is(false)))
+                    .andExpect(jsonPath("$[1].funko").doesNotExist())
+                    .andExpect(jsonPath("$[2].id", is(1)));
+
+            verify(funkoService).getByIds(List.of(2L, 99L, 1L));
+        }
+
+        @Test
+        @DisplayName("mget() acepta la lista de ids por POST")
+        void mgetByPost() throws Exception {
+            // Arrange
+            when(funkoService.getByIds(List.of(1L))).thenReturn(Map.of(1L, funko1));
+            when(mapper.toResponse(funko1)).thenReturn(responseDTO1);
+
+            // Act & Assert
+            mockMvc.perform(post("/funkos/_mget")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new FunkoMultiGetRequestDto(List.of(1L)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].found", is(true)))
+                    .andExpect(jsonPath("$[0].funko.id", is(1)));
+        }
+
+        @Test
+        @DisplayName("getById() responde en CBOR si el cliente lo pide en Accept")
+        void getByIdAsCbor() throws Exception {
+            // Arrange
+            when(funkoService.getById(1L)).thenReturn(funko1);
+            when(mapper.toResponse(funko1)).thenReturn(responseDTO1);
+            ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+
+            // Act
+            byte[] body = mockMvc.perform(get("/funkos/1").accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            // Assert: el mismo DTO, leído de vuelta desde CBOR
+            FunkoResponseDto leido = cborMapper.readValue(body, FunkoResponseDto.class);
+            assertEquals(1L, leido.id());
+            assertEquals("Funko 1", leido.nombre());
+        }
+
+        @Test
+        @DisplayName("getAll() con fields devuelve sólo los campos pedidos")
+        void getAllWithFields() throws Exception {
+            // Arrange
+            Set<CampoFunko> campos = EnumSet.of(CampoFunko.ID, CampoFunko.NOMBRE);
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("id", 1L);
+            fila.put("nombre", "Funko 1");
+            when(funkoService.streamAllFields(campos)).thenReturn(Stream.of(fila));
+
+            // Act & Assert
+            mockMvc.perform(get("/funkos").param("fields", "nombre, id"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id", is(1)))
+                    .andExpect(jsonPath("$[0].nombre", is("Funko 1")))
+                    .andExpect(jsonPath("$[0].precio").doesNotExist());
+
+            verify(funkoService).streamAllFields(campos);
+        }
+
+        @Test
+        @DisplayName("getById() con fields devuelve sólo los campos pedidos")
+        void getByIdWithFields() throws Exception {
+            // Arrange
+            Set<CampoFunko> campos = EnumSet.of(CampoFunko.PRECIO);
+            when(funkoService.getFieldsById(1L, campos)).thenReturn(Map.of("precio", 19.99));
+
+            // Act & Assert
+            mockMvc.perform(get("/funkos/1").param("fields", "precio"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.precio", is(19.99)))
+                    .andExpect(jsonPath("$.nombre").doesNotExist());
+
+            verify(funkoService).getFieldsById(1L, campos);
         }
     }
 
@@ -267,6 +370,16 @@ class FunkoControllerTest {
             verify(funkoService).getById(99L);
         }
 
+        @Test
+        @DisplayName("getAll() devuelve 400 si fields incluye un campo desconocido")
+        void getAllWithUnknownField() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get("/funkos").param("fields", "id,uuid"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.detail", is("Campo desconocido en fields")))
+                    .andExpect(jsonPath("$.field", is("uuid")));
+        }
+
         @Test
         @DisplayName("create() devuelve 400 con datos inválidos")
         void createInvalidData() throws Exception {
@@ -0,0 +1,69 @@
+package srangeldev.funkoapi.exceptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProblemResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("notFound() genera un problem+json válido con el id")
+    void notFoundIsValidProblemJson() throws Exception {
+        // Act
+        ResponseEntity<byte[]> response = ProblemResponses.notFound(99L);
+        JsonNode json = objectMapper.readTree(response.getBody());
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getHeaders().getContentType());
+        assertEquals(404, json.get("status").asInt());
+        assertEquals("Funko con id 99 no encontrado", json.get("detail").asText());
+        assertEquals(json.get("detail").asText(), json.get("error").asText());
+    }
+
+    @Test
+    @DisplayName("badRequest() escapa el mensaje y reutiliza el cuerpo")
+    void badRequestEscapesAndCaches() throws Exception {
+        // Act
+        ResponseEntity<byte[]> first = ProblemResponses.badRequest("Nombre \"raro\"\ncon salto");
+        ResponseEntity<byte[]> second = ProblemResponses.badRequest("Nombre \"raro\"\ncon salto");
+        JsonNode json = objectMapper.readTree(first.getBody());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, first.getStatusCode());
+        assertEquals("Nombre \"raro\"\ncon salto", json.get("detail").asText());
+        assertSame(first.getBody(), second.getBody(), "El cuerpo de un mismo mensaje debe reutilizarse");
+    }
+
+    @Test
+    @DisplayName("badRequest() con campo lo pone en \"field\" y deja el mensaje fijo")
+    void badRequestKeepsTheFieldOutOfTheMessage() throws Exception {
+        // Act
+        ResponseEntity<byte[]> response = ProblemResponses.badRequest("Campo desconocido en fields", "uu\"id");
+        ResponseEntity<byte[]> otro = ProblemResponses.badRequest("Campo desconocido en fields", "otro");
+        JsonNode json = objectMapper.readTree(response.getBody());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Campo desconocido en fields", json.get("detail").asText());
+        assertEquals(json.get("detail").asText(), json.get("error").asText());
+        assertEquals("uu\"id", json.get("field").asText());
+        assertEquals("otro", objectMapper.readTree(otro.getBody()).get("field").asText());
+    }
+
+    @Test
+    @DisplayName("Las excepciones de dominio no capturan traza de la pila")
+    void domainExceptionsAreStackless() {
+        assertEquals(0, new FunkoNotFoundException(1L).getStackTrace().length);
+        assertEquals(0, new FunkoException("x").getStackTrace().length);
+        assertEquals("Funko con id 1 no encontrado", new FunkoNotFoundException(1L).getMessage());
+    }
+}
@@ -0,0 +1,83 @@
+package srangeldev.funkoapi.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrProfilerTest {
+
+    private final JfrProfiler profiler = new JfrProfiler();
+    private Path fichero;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (profiler.isRecording()) {
+            fichero = profiler.stop();
+        }
+        if (fichero != null) {
+            Files.deleteIfExists(fichero);
+        }
+    }
+
+    @Test
+    @DisplayName("start()/stop() genera un .jfr con los eventos propios de la aplicación")
+    void recordsCustomEvents() throws Exception {
+        // Arrange
+        profiler.start("default", Duration.ofMinutes(1));
+
+        // Act
+        FunkoSaveEvent event = new FunkoSaveEvent();
+        event.begin();
+        event.operation = "create";
+        event.id = 42;
+        event.commit();
+        fichero = profiler.stop();
+
+        // Assert
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(fichero);
+        assertTrue(eventos.stream().anyMatch(e ->
+                        e.getEventType().getName().equals("srangeldev.funkoapi.Save") && e.getLong("id") == 42),
+                "La grabación debe contener el evento de guardado");
+        assertFalse(profiler.isRecording());
+    }
+
+    @Test
+    @DisplayName("La grabación no incluye variables de entorno ni propiedades de sistema")
+    void doesNotRecordEnvironmentOrSystemProperties() throws Exception {
+        // Arrange
+        profiler.start("default", Duration.ofMinutes(1));
+
+        // Act
+        fichero = profiler.stop();
+
+        // Assert
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(fichero);
+        assertTrue(eventos.stream().noneMatch(e -> JfrProfiler.SENSITIVE_EVENTS.contains(e.getEventType().getName())),
+                "El .jfr no debe contener secretos del entorno del proceso");
+    }
+
+    @Test
+    @DisplayName("start() falla si ya hay una grabación en curso")
+    void startTwiceFails() throws Exception {
+        // Arrange
+        profiler.start("default", Duration.ofMinutes(1));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> profiler.start("default", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("stop() falla si no hay grabación en curso")
+    void stopWithoutRecordingFails() {
+        assertThrows(IllegalStateException.class, profiler::stop);
+    }
+}
@@ -0,0 +1,264 @@
+package srangeldev.funkoapi.logstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunkoLogStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private FunkoLogStore abrir() throws Exception {
+        return new FunkoLogStore(dir.resolve("funkos.log"), true, 0, 0.5);
+    }
+
+    private static Funko funko(String nombre, double precio) {
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNombre("MARVEL");
+        return new Funko(null, nombre, precio, categoria, LocalDate.of(2020, 1, 1), null, null);
+    }
+
+    @Test
+    @DisplayName("Altas, cambios y borrados se recuperan al reabrir, sin reutilizar ids")
+    void survivesReopen() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        Funko ironMan = store.save(funko("Iron Man", 14.99));
+        Funko groot = store.save(funko("Groot", 9.99));
+        store.patch(ironMan.getId(), new Funko(null, null, 19.99, null, null, null, null));
+        store.deleteById(groot.getId());
+        store.close();
+
+        // Act
+        FunkoLogStore reabierto = abrir();
+
+        // Assert
+        assertEquals(1, reabierto.count());
+        Funko leido = reabierto.getById(ironMan.getId()).orElseThrow();
+        assertEquals("Iron Man", leido.getNombre());
+        assertEquals(19.99, leido.getPrecio());
+        assertEquals("MARVEL", leido.getCategoria().getNombre());
+        assertEquals(ironMan.getCreatedAt(), leido.getCreatedAt());
+        assertTrue(reabierto.getById(groot.getId()).isEmpty());
+        assertEquals(3L, reabierto.save(funko("Thor", 12.0)).getId(), "El id del borrado no se reutiliza");
+        reabierto.close();
+    }
+
+    @Test
+    @DisplayName("findAfter lee del log sólo la página pedida, en orden de id")
+    void findAfterReadsOnlyThePage() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        for (int i = 0; i < 5; i++) {
+            store.save(funko("Funko " + i, 10.0 + i));
+        }
+        store.deleteById(3L);
+
+        // Act
+        List<Funko> pagina = store.findAfter(1L, 2);
+
+        // Assert
+        assertEquals(List.of(2L, 4L), pagina.stream().map(Funko::getId).toList());
+        assertEquals("Funko 3", pagina.get(1).getNombre());
+        assertTrue(store.findAfter(5L, 10).isEmpty());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("ids() sale del índice y findUpdatedAfter sólo devuelve los modificados después de la fecha")
+    void idsAndUpdatedAfterUseTheIndex() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        Funko ironMan = store.save(funko("Iron Man", 14.99));
+        Funko groot = store.save(funko("Groot", 9.99));
+        Funko thor = store.save(funko("Thor", 12.0));
+        store.deleteById(groot.getId());
+        LocalDateTime corte = thor.getUpdatedAt();
+        Thread.sleep(5);
+        store.patch(ironMan.getId(), new Funko(null, null, 19.99, null, null, null, null));
+
+        // Act
+        List<Long> ids = store.ids();
+        List<Funko> modificados = store.findUpdatedAfter(corte);
+
+        // Assert
+        assertEquals(List.of(ironMan.getId(), thor.getId()), ids);
+        assertEquals(List.of(ironMan.getId()), modificados.stream().map(Funko::getId).toList());
+        assertEquals(19.99, modificados.get(0).getPrecio());
+        store.close();
+    }
+
+    @Test
+    @DisplayName("El registro DELETE guarda la fecha de borrado que recibe, no la de escritura")
+    void deleteKeepsTheGivenDate() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        Funko groot = store.save(funko("Groot", 9.99));
+        LocalDateTime deletedAt = LocalDateTime.of(2024, 5, 1, 10, 30, 0, 123_000_000);
+
+        // Act
+        store.deleteById(groot.getId(), deletedAt);
+        store.close();
+        FunkoLogStore reabierto = abrir();
+
+        // Assert
+        assertEquals(Map.of(groot.getId(), deletedAt), reabierto.tombstones());
+        reabierto.close();
+    }
+
+    @Test
+    @DisplayName("Tras una caída se reproduce la cola y se descarta el registro escrito a medias")
+    void recoversFromTornWrite() throws Exception {
+        // Arrange: sin close() (no hay checkpoint) y con basura al final, como una escritura cortada
+        FunkoLogStore store = abrir();
+        Funko ironMan = store.save(funko("Iron Man", 14.99));
+        store.save(funko("Groot", 9.99));
+        Path log = dir.resolve("funkos.log");
+        long tamano = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}), tamano);
+        }
+
+        // Act
+        FunkoLogStore recuperado = abrir();
+
+        // Assert
+        assertEquals(2, recuperado.count());
+        assertEquals("Iron Man", recuperado.getById(ironMan.getId()).orElseThrow().getNombre());
+        assertEquals(tamano, Files.size(log), "El registro incompleto se trunca");
+        recuperado.close();
+    }
+
+    @Test
+    @DisplayName("La compactación deja sólo las últimas versiones y el fichero encoge")
+    void compactionDropsSupersededRecords() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        Funko ironMan = store.save(funko("Iron Man", 1.0));
+        for (int i = 2; i <= 100; i++) {
+            store.update(ironMan.getId(), funko("Iron Man", i));
+        }
+        Funko groot = store.save(funko("Groot", 9.99));
+        store.deleteById(groot.getId());
+        long antes = store.sizeInBytes();
+
+        // Act
+        store.compactIfNeeded();
+        Funko thor = store.save(funko("Thor", 12.0));
+        store.close();
+        FunkoLogStore reabierto = abrir();
+
+        // Assert
+        assertTrue(store.sizeInBytes() < antes / 10, "Deben quedar sólo los registros vivos");
+        assertEquals(2, reabierto.count());
+        assertEquals(100.0, reabierto.getById(ironMan.getId()).orElseThrow().getPrecio());
+        assertTrue(reabierto.getById(groot.getId()).isEmpty());
+        assertEquals("Thor", reabierto.getById(thor.getId()).orElseThrow().getNombre());
+        reabierto.close();
+    }
+
+    @Test
+    @DisplayName("Los borrados se conservan con su fecha tras compactar y reabrir, hasta que se olvidan")
+    void tombstonesSurviveCompactionAndReopen() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        Funko groot = store.save(funko("Groot", 9.99));
+        Funko thor = store.save(funko("Thor", 12.0));
+        store.deleteById(groot.getId());
+        store.deleteById(thor.getId());
+        Map<Long, LocalDateTime> borrados = store.tombstones();
+
+        // Act
+        store.compact();
+        store.close();
+        FunkoLogStore reabierto = abrir();
+
+        // Assert
+        assertEquals(Set.of(groot.getId(), thor.getId()), borrados.keySet());
+        assertEquals(borrados, reabierto.tombstones());
+
+        // Y una vez purgados, la compactación ya no los copia
+        reabierto.forgetTombstones(List.of(groot.getId()));
+        reabierto.compact();
+        reabierto.close();
+        FunkoLogStore otraVez = abrir();
+        assertEquals(Set.of(thor.getId()), otraVez.tombstones().keySet());
+        otraVez.close();
+    }
+
+    @Test
+    @DisplayName("Un hilo interrumpido no deja el log cerrado para los demás")
+    void interruptedThreadDoesNotCloseTheLog() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        Funko ironMan = store.save(funko("Iron Man", 14.99));
+
+        // Act
+        Thread.currentThread().interrupt();
+        Funko groot;
+        boolean sigueInterrumpido;
+        try {
+            groot = store.save(funko("Groot", 9.99));
+            store.getById(ironMan.getId()).orElseThrow();
+        } finally {
+            sigueInterrumpido = Thread.interrupted();
+        }
+
+        // Assert
+        assertTrue(sigueInterrumpido, "La interrupción se conserva para quien la pidió");
+        assertEquals("Iron Man", store.getById(ironMan.getId()).orElseThrow().getNombre());
+        assertEquals("Groot", store.getById(groot.getId()).orElseThrow().getNombre());
+        store.save(funko("Thor", 12.0));
+        store.close();
+        FunkoLogStore reabierto = abrir();
+        assertEquals(3, reabierto.count());
+        reabierto.close();
+    }
+
+    @Test
+    @DisplayName("Las escrituras concurrentes comparten fsync y no se pierde ninguna")
+    void concurrentWritesWithGroupCommit() throws Exception {
+        // Arrange
+        FunkoLogStore store = abrir();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<Funko>> altas = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            double precio = i;
+            altas.add(pool.submit(() -> store.save(funko("F", precio))));
+        }
+        for (Future<Funko> alta : altas) {
+            alta.get();
+        }
+        pool.shutdown();
+        store.close();
+
+        // Assert
+        FunkoLogStore reabierto = abrir();
+        assertEquals(400, reabierto.count());
+        assertEquals(400, reabierto.findByPrecioBefore(1000.0).size());
+        reabierto.close();
+    }
+}
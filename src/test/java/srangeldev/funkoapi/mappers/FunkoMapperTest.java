@@ -16,6 +16,15 @@ class FunkoMapperTest {
     // Instanciamos el mapper directamente, ya que no tiene dependencias
     private final FunkoMapper funkoMapper = new FunkoMapper();
 
+    // Las categorías son entidades; para estos tests basta con el nombre
+    private static final Categoria COMICS = categoria("COMICS");
+
+    private static Categoria categoria(String nombre) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        return categoria;
+    }
+
     @Test
     @DisplayName("Debe mapear un Funko a FunkoResponseDto correctamente")
     void toResponse_withValidFunko_mapsCorrectly() {
@@ -24,7 +33,7 @@ class FunkoMapperTest {
                 1L,
                 "Batman",
                 99.99,
-                Categoria.COMICS,
+                COMICS,
                 LocalDate.of(2023, 10, 1),
                 LocalDateTime.of(2023, 10, 1, 10, 0, 0),
                 LocalDateTime.of(2023, 10, 5, 12, 30, 0)
@@ -36,13 +45,13 @@ class FunkoMapperTest {
         // Assert: verificamos que el resultado no es nulo y que cada campo coincide
         assertNotNull(dto);
         assertAll(
-                () -> assertEquals(funko.getId(), dto.getId()),
-                () -> assertEquals(funko.getNombre(), dto.getNombre()),
-                () -> assertEquals(funko.getPrecio(), dto.getPrecio()),
-                () -> assertEquals(funko.getCategoria(), dto.getCategoria()),
-                () -> assertEquals(funko.getFechaLanzamiento(), dto.getFechaLanzamiento()),
-                () -> assertEquals(funko.getCreatedAt(), dto.getCreatedAt()),
-                () -> assertEquals(funko.getUpdatedAt(), dto.getUpdatedAt())
+                () -> assertEquals(funko.getId(), dto.id()),
+                () -> assertEquals(funko.getNombre(), dto.nombre()),
+                () -> assertEquals(funko.getPrecio(), dto.precio()),
+                () -> assertEquals(funko.getCategoria(), dto.categoria()),
+                () -> assertEquals(funko.getFechaLanzamiento(), dto.fechaLanzamiento()),
+                () -> assertEquals(funko.getCreatedAt(), dto.createdAt()),
+                () -> assertEquals(funko.getUpdatedAt(), dto.updatedAt())
         );
     }
 
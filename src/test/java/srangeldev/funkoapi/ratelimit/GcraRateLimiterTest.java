@@ -0,0 +1,102 @@
+package srangeldev.funkoapi.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    // Reloj manual para no depender del tiempo real
+    private final AtomicLong reloj = new AtomicLong(SEGUNDO * 1000);
+    // 10 peticiones/s, ráfaga de 3
+    private final GcraRateLimiter limiter = new GcraRateLimiter(10, 3, 100, reloj::get);
+
+    @Test
+    @DisplayName("Admite la ráfaga completa y rechaza la siguiente indicando la espera")
+    void allowsBurstThenRejects() {
+        // Act + Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"), "petición " + i + " de la ráfaga");
+        }
+        long espera = limiter.tryAcquire("a");
+        assertTrue(espera > 0 && espera <= SEGUNDO / 10, "la siguiente llega en un intervalo como mucho");
+    }
+
+    @Test
+    @DisplayName("Pasado el intervalo de emisión vuelve a admitir una petición")
+    void refillsOverTime() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        // Act
+        reloj.addAndGet(SEGUNDO / 10);
+
+        // Assert
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertNotEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    @DisplayName("Cada clave tiene su propio cubo")
+    void keysAreIndependent() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        // Act + Assert
+        assertNotEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    @DisplayName("evictIdle() borra sólo las claves con el cubo ya lleno")
+    void evictsOnlyIdleKeys() {
+        // Arrange: "a" consume, "b" no vuelve en mucho tiempo
+        limiter.tryAcquire("b");
+        reloj.addAndGet(SEGUNDO);
+        limiter.tryAcquire("a");
+
+        // Act
+        int borradas = limiter.evictIdle();
+
+        // Assert
+        assertEquals(1, borradas);
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    @DisplayName("Con maxKeys alcanzado, una clave nueva ocupa el sitio de una inactiva")
+    void overflowEvictsIdleKeys() {
+        // Arrange: "a" hace una sola petición y pasado un intervalo su cubo vuelve a estar lleno
+        GcraRateLimiter pequeno = new GcraRateLimiter(10, 2, 1, reloj::get);
+        pequeno.tryAcquire("a");
+        reloj.addAndGet(SEGUNDO / 10);
+
+        // Act + Assert
+        assertEquals(0, pequeno.tryAcquire("b"));
+        assertEquals(1, pequeno.size());
+    }
+
+    @Test
+    @DisplayName("Con maxKeys alcanzado y todas activas, una clave nueva se rechaza sin compartir cubo")
+    void overflowRejectsNewKeys() {
+        // Arrange: "a" agota su ráfaga y sigue ocupando su sitio
+        GcraRateLimiter pequeno = new GcraRateLimiter(10, 2, 1, reloj::get);
+        pequeno.tryAcquire("a");
+        pequeno.tryAcquire("a");
+
+        // Act + Assert
+        assertNotEquals(0, pequeno.tryAcquire("b"));
+        assertEquals(1, pequeno.size());
+        reloj.addAndGet(SEGUNDO);
+        assertEquals(0, pequeno.tryAcquire("b"), "Cuando \"a\" queda inactiva hay sitio");
+    }
+}
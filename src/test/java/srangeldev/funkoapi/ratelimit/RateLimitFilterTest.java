@@ -0,0 +1,58 @@
+package srangeldev.funkoapi.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(new GcraRateLimiter(10, 10, 100),
+            new GcraRateLimiter(1, 1, 100), Set.of("clave-a", "clave-b", "clave-c"), 2, 100, new SimpleMeterRegistry());
+
+    private MockHttpServletRequest peticion(String ip, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/funkos");
+        request.setRemoteAddr(ip);
+        if (apiKey != null) {
+            request.addHeader(RateLimitFilter.HEADER_API_KEY, apiKey);
+        }
+        return request;
+    }
+
+    @Test
+    @DisplayName("Una API key válida identifica al cliente; una inventada cuenta como la IP")
+    void onlyValidKeysIdentifyTheClient() {
+        // Act & Assert
+        assertEquals("key:clave-a", filter.clientKey(peticion("10.0.0.1", "clave-a")));
+        assertEquals("ip:10.0.0.1", filter.clientKey(peticion("10.0.0.1", "inventada")));
+        assertEquals("ip:10.0.0.1", filter.clientKey(peticion("10.0.0.1", null)));
+    }
+
+    @Test
+    @DisplayName("Las IPv6 de una misma /64 cuentan como un único cliente")
+    void groupsIpv6By64() {
+        // Act & Assert
+        assertEquals("ip:2001:db8:1:2::/64", filter.clientKey(peticion("2001:db8:1:2::1", null)));
+        assertEquals("ip:2001:db8:1:2::/64", filter.clientKey(peticion("2001:db8:1:2:ffff:0:0:7", null)));
+        assertEquals("ip:2001:db8:1:3::/64", filter.clientKey(peticion("2001:db8:1:3::1", null)));
+        assertEquals("ip:10.0.0.9", filter.clientKey(peticion("::ffff:10.0.0.9", null)));
+    }
+
+    @Test
+    @DisplayName("Una IP no puede repartir sus peticiones entre más claves que su cupo")
+    void capsKeysPerIp() {
+        // Act
+        filter.clientKey(peticion("10.0.0.2", "clave-a"));
+        filter.clientKey(peticion("10.0.0.2", "clave-b"));
+        String tercera = filter.clientKey(peticion("10.0.0.2", "clave-c"));
+
+        // Assert
+        assertEquals("ip:10.0.0.2", tercera);
+        assertEquals("key:clave-a", filter.clientKey(peticion("10.0.0.2", "clave-a")), "Las claves ya vistas siguen valiendo");
+        assertEquals("key:clave-c", filter.clientKey(peticion("10.0.0.3", "clave-c")), "El cupo es por IP");
+    }
+}
@@ -16,8 +16,23 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class FunkoRepositoryImplTest {
 
+    // Las categorías son entidades: el repositorio en memoria las trata por nombre
+    private static final Categoria VIDEOJUEGOS = categoria("VIDEOJUEGOS");
+    private static final Categoria COMICS = categoria("COMICS");
+    private static final Categoria PELICULAS = categoria("PELICULAS");
+    private static final Categoria SERIES = categoria("SERIES");
+    private static final Categoria OTROS = categoria("OTROS");
+    private static final Categoria MUSICA = categoria("MUSICA");
+    private static final Categoria DEPORTES = categoria("DEPORTES");
+
     private FunkoRepositoryImpl repository;
 
+    private static Categoria categoria(String nombre) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        return categoria;
+    }
+
     @BeforeEach
     void setUp() {
         repository = new FunkoRepositoryImpl();
@@ -72,9 +87,9 @@ class FunkoRepositoryImplTest {
         @DisplayName("getAll() devuelve todos los elementos ordenados por ID")
         void getAllWithElements() {
             // Arrange
-            Funko f1 = new Funko(null, "A", 10.0, Categoria.VIDEOJUEGOS, LocalDate.of(2020,1,1), null, null);
-            Funko f2 = new Funko(null, "B", 12.0, Categoria.COMICS, LocalDate.of(2021,2,2), null, null);
-            Funko f3 = new Funko(null, "C", 14.0, Categoria.PELICULAS, LocalDate.of(2022,3,3), null, null);
+            Funko f1 = new Funko(null, "A", 10.0, VIDEOJUEGOS, LocalDate.of(2020,1,1), null, null);
+            Funko f2 = new Funko(null, "B", 12.0, COMICS, LocalDate.of(2021,2,2), null, null);
+            Funko f3 = new Funko(null, "C", 14.0, PELICULAS, LocalDate.of(2022,3,3), null, null);
             repository.save(f1);
             repository.save(f2);
             repository.save(f3);
@@ -93,7 +108,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("getById() devuelve Funko si existe")
         void getByIdExisting() {
             // Arrange
-            Funko saved = repository.save(new Funko(null, "Item", 9.99, Categoria.SERIES,
+            Funko saved = repository.save(new Funko(null, "Item", 9.99, SERIES,
                     LocalDate.of(2019,9,9), null, null));
 
             // Act
@@ -103,7 +118,25 @@ class FunkoRepositoryImplTest {
             assertTrue(found.isPresent(), "El Funko debe encontrarse");
             assertEquals("Item", found.get().getNombre(), "El nombre debe coincidir");
             assertEquals(9.99, found.get().getPrecio(), "El precio debe coincidir");
-            assertEquals(Categoria.SERIES, found.get().getCategoria(), "La categoría debe coincidir");
+            assertEquals(SERIES, found.get().getCategoria(), "La categoría debe coincidir");
+        }
+
+        @Test
+        @DisplayName("findAfter() devuelve sólo la página siguiente al id, en orden")
+        void findAfterReturnsNextPage() {
+            // Arrange
+            for (int i = 0; i < 5; i++) {
+                repository.save(new Funko(null, "F" + i, 10.0 + i, SERIES, LocalDate.of(2020,1,1), null, null));
+            }
+            repository.deleteById(3L);
+
+            // Act
+            List<Funko> pagina = repository.findAfter(1L, 2);
+
+            // Assert
+            assertEquals(List.of(2L, 4L), pagina.stream().map(Funko::getId).toList(),
+                    "Debe saltarse el borrado y cortar en el límite");
+            assertTrue(repository.findAfter(5L, 10).isEmpty(), "Tras el último id no queda nada");
         }
 
         @Test
@@ -122,7 +155,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("save() asigna ID y timestamps correctamente")
         void saveAssignsIdAndTimestamps() {
             // Arrange
-            Funko funko = new Funko(null, "X", 5.0, Categoria.OTROS,
+            Funko funko = new Funko(null, "X", 5.0, OTROS,
                     LocalDate.of(2018,8,8), null, null);
 
             // Act
@@ -139,9 +172,9 @@ class FunkoRepositoryImplTest {
         @DisplayName("save() incrementa IDs secuencialmente")
         void saveIncrementsId() {
             // Arrange & Act
-            Funko f1 = repository.save(new Funko(null, "X", 5.0, Categoria.OTROS,
+            Funko f1 = repository.save(new Funko(null, "X", 5.0, OTROS,
                     LocalDate.of(2018,8,8), null, null));
-            Funko f2 = repository.save(new Funko(null, "Y", 6.0, Categoria.MUSICA,
+            Funko f2 = repository.save(new Funko(null, "Y", 6.0, MUSICA,
                     LocalDate.of(2017,7,7), null, null));
 
             // Assert
@@ -153,7 +186,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("save() siempre asigna un nuevo ID secuencial, incluso si ya tiene ID")
         void saveWithExistingId() {
             // Arrange
-            Funko funkoConId = new Funko(100L, "PreAsignado", 25.0, Categoria.COMICS,
+            Funko funkoConId = new Funko(100L, "PreAsignado", 25.0, COMICS,
                     LocalDate.of(2023,3,3), null, null);
 
             // Act
@@ -174,7 +207,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("update() modifica todos los campos correctamente")
         void updateSuccess() {
             // Arrange
-            Funko original = repository.save(new Funko(null, "Old", 10.0, Categoria.VIDEOJUEGOS,
+            Funko original = repository.save(new Funko(null, "Old", 10.0, VIDEOJUEGOS,
                     LocalDate.of(2020,1,1), null, null));
             LocalDateTime createdAtOriginal = original.getCreatedAt();
             LocalDateTime updatedAtOriginal = original.getUpdatedAt();
@@ -182,7 +215,7 @@ class FunkoRepositoryImplTest {
             // Esperar un momento para asegurar que updatedAt será diferente
             try { Thread.sleep(10); } catch (InterruptedException e) { }
 
-            Funko cambios = new Funko(null, "New", 20.0, Categoria.COMICS,
+            Funko cambios = new Funko(null, "New", 20.0, COMICS,
                     LocalDate.of(2021,2,2), null, null);
 
             // Act
@@ -193,7 +226,7 @@ class FunkoRepositoryImplTest {
             Funko updated = updatedOpt.get();
             assertEquals("New", updated.getNombre(), "El nombre debe actualizarse");
             assertEquals(20.0, updated.getPrecio(), "El precio debe actualizarse");
-            assertEquals(Categoria.COMICS, updated.getCategoria(), "La categoría debe actualizarse");
+            assertEquals(COMICS, updated.getCategoria(), "La categoría debe actualizarse");
             assertEquals(LocalDate.of(2021,2,2), updated.getFechaLanzamiento(),
                     "La fecha debe actualizarse");
 
@@ -208,7 +241,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("update() devuelve Optional.empty() para ID inexistente")
         void updateNonExisting() {
             // Arrange
-            Funko cambios = new Funko(null, "New", 20.0, Categoria.COMICS,
+            Funko cambios = new Funko(null, "New", 20.0, COMICS,
                     LocalDate.of(2021,2,2), null, null);
 
             // Act
@@ -222,7 +255,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("patch() actualiza solo los campos no nulos")
         void patchPartialUpdate() {
             // Arrange
-            Funko original = repository.save(new Funko(null, "Nombre", 10.0, Categoria.SERIES,
+            Funko original = repository.save(new Funko(null, "Nombre", 10.0, SERIES,
                     LocalDate.of(2020,1,1), null, null));
             LocalDateTime createdAtOriginal = original.getCreatedAt();
 
@@ -240,7 +273,7 @@ class FunkoRepositoryImplTest {
             Funko patched = patchedOpt.get();
             assertEquals("Nombre", patched.getNombre(), "El nombre no debe cambiar");
             assertEquals(15.5, patched.getPrecio(), "El precio debe actualizarse");
-            assertEquals(Categoria.SERIES, patched.getCategoria(), "La categoría no debe cambiar");
+            assertEquals(SERIES, patched.getCategoria(), "La categoría no debe cambiar");
             assertEquals(LocalDate.of(2020,1,1), patched.getFechaLanzamiento(),
                     "La fecha no debe cambiar");
             assertEquals(createdAtOriginal, patched.getCreatedAt(), "createdAt no debe cambiar");
@@ -253,7 +286,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("patch() con todos los campos nulos no modifica los datos")
         void patchAllFieldsNull() {
             // Arrange
-            Funko original = repository.save(new Funko(null, "Original", 10.0, Categoria.SERIES,
+            Funko original = repository.save(new Funko(null, "Original", 10.0, SERIES,
                     LocalDate.of(2020,1,1), null, null));
             String nombreOriginal = original.getNombre();
             double precioOriginal = original.getPrecio();
@@ -299,7 +332,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("deleteById() elimina y devuelve el Funko si existe")
         void deleteExisting() {
             // Arrange
-            Funko saved = repository.save(new Funko(null, "Del", 11.0, Categoria.DEPORTES,
+            Funko saved = repository.save(new Funko(null, "Del", 11.0, DEPORTES,
                     LocalDate.of(2016,6,6), null, null));
 
             // Act
@@ -328,14 +361,14 @@ class FunkoRepositoryImplTest {
         @DisplayName("deleteById() mantiene la secuencia de ID después de eliminar")
         void deletePreservesIdSequence() {
             // Arrange
-            Funko f1 = repository.save(new Funko(null, "A", 10.0, Categoria.VIDEOJUEGOS,
+            Funko f1 = repository.save(new Funko(null, "A", 10.0, VIDEOJUEGOS,
                     LocalDate.of(2020,1,1), null, null));
-            Funko f2 = repository.save(new Funko(null, "B", 12.0, Categoria.COMICS,
+            Funko f2 = repository.save(new Funko(null, "B", 12.0, COMICS,
                     LocalDate.of(2021,2,2), null, null));
 
             // Act
             repository.deleteById(f1.getId()); // Eliminar el primer Funko
-            Funko f3 = repository.save(new Funko(null, "C", 14.0, Categoria.PELICULAS,
+            Funko f3 = repository.save(new Funko(null, "C", 14.0, PELICULAS,
                     LocalDate.of(2022,3,3), null, null));
 
             // Assert
@@ -351,7 +384,7 @@ class FunkoRepositoryImplTest {
         @DisplayName("getAll() devuelve lista inmutable o copia")
         void getAllReturnsSafeList() {
             // Arrange
-            repository.save(new Funko(null, "A", 10.0, Categoria.VIDEOJUEGOS,
+            repository.save(new Funko(null, "A", 10.0, VIDEOJUEGOS,
                     LocalDate.of(2020,1,1), null, null));
 
             // Act
@@ -367,4 +400,56 @@ class FunkoRepositoryImplTest {
                     "Las listas deben tener el mismo contenido");
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Tests de índices secundarios")
+    class IndexTests {
+        @Test
+        @DisplayName("Las búsquedas por nombre, precio y categoría siguen a las actualizaciones y borrados")
+        void indexesFollowWrites() {
+            // Arrange
+            Funko spider = repository.save(new Funko(null, "Spider-Man", 10.0, COMICS,
+                    LocalDate.of(2020,1,1), null, null));
+            Funko batman = repository.save(new Funko(null, "Batman", 20.0, COMICS,
+                    LocalDate.of(2020,1,1), null, null));
+
+            // Act
+            repository.patch(spider.getId(), new Funko(null, "Spider-Gwen", 30.0, SERIES, null, null, null));
+            repository.deleteById(batman.getId());
+
+            // Assert
+            assertTrue(repository.findByNombreContainingIgnoreCase("man").isEmpty(),
+                    "Ningún nombre actual contiene 'man'");
+            assertEquals(1, repository.findByNombreContainingIgnoreCase("GWEN").size());
+            assertTrue(repository.findByPrecioBefore(25.0).isEmpty(), "El precio antiguo no debe seguir indexado");
+            assertTrue(repository.findByCategoria(COMICS).isEmpty(), "No quedan Funkos de COMICS");
+            assertEquals(spider.getId(), repository.findByCategoria(categoria("SERIES")).get(0).getId());
+        }
+
+        @Test
+        @DisplayName("Las altas concurrentes reciben ids únicos y consecutivos")
+        void concurrentSaves() throws InterruptedException {
+            // Arrange
+            int hilos = 8;
+            int porHilo = 500;
+            Thread[] threads = new Thread[hilos];
+            for (int i = 0; i < hilos; i++) {
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < porHilo; j++) {
+                        repository.save(new Funko(null, "F", 1.0 + j, OTROS, null, null, null));
+                    }
+                });
+            }
+
+            // Act
+            for (Thread t : threads) t.start();
+            for (Thread t : threads) t.join();
+
+            // Assert
+            List<Funko> all = repository.getAll();
+            assertEquals(hilos * porHilo, all.size());
+            assertEquals((long) hilos * porHilo, all.get(all.size() - 1).getId(), "Los ids deben ser 1..N sin huecos");
+            assertEquals(hilos * porHilo, repository.findByCategoria(OTROS).size());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package srangeldev.funkoapi.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import srangeldev.funkoapi.models.Funko;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageEngineFunkoRepositoryTest {
+
+    private final FunkoRepositoryImpl engine = new FunkoRepositoryImpl();
+    private final StorageEngineFunkoRepository repository = new StorageEngineFunkoRepository(engine);
+
+    @Test
+    @DisplayName("save() de un id que se ha borrado entretanto no lo da de alta con otro id")
+    void saveOfDeletedIdConflicts() {
+        // Arrange: el PUT leyó el Funko antes de que un DELETE lo quitara del motor
+        Funko leido = repository.save(new Funko(null, "Groot", 9.99, null, LocalDate.of(2020, 1, 1), null, null));
+        engine.deleteById(leido.getId());
+        leido.setPrecio(12.99);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.save(leido));
+        assertEquals(0, engine.count(), "El Funko borrado no debe volver");
+    }
+}
@@ -0,0 +1,77 @@
+package srangeldev.funkoapi.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadWriteRoutingDataSource routing =
+            new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class));
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        DataSourceRoute.clear();
+    }
+
+    @Test
+    @DisplayName("Las transacciones de escritura (o sin transacción) van al primario")
+    void writesGoToPrimary() {
+        assertEquals(DataSourceRoute.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("Las transacciones de sólo lectura van a la réplica")
+    void readOnlyGoesToReplica() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act + Assert
+        assertEquals(DataSourceRoute.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("Si el cliente acaba de escribir, sus lecturas van al primario")
+    void forcedPrimaryWinsOverReadOnly() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        DataSourceRoute.forcePrimary();
+
+        // Act + Assert
+        assertEquals(DataSourceRoute.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("onPrimary lee del primario y deja el hilo como estaba")
+    void onPrimaryRestoresRoute() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Object dentro = DataSourceRoute.onPrimary(routing::determineCurrentLookupKey);
+
+        // Assert
+        assertEquals(DataSourceRoute.Target.PRIMARY, dentro);
+        assertEquals(DataSourceRoute.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("onPrimary no quita el primario forzado por read-your-writes")
+    void onPrimaryKeepsForcedPrimary() {
+        // Arrange
+        DataSourceRoute.forcePrimary();
+
+        // Act
+        DataSourceRoute.onPrimary(() -> null);
+
+        // Assert
+        assertTrue(DataSourceRoute.isPrimaryForced());
+    }
+}
@@ -0,0 +1,41 @@
+package srangeldev.funkoapi.routing;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1), 100);
+    private final AtomicBoolean primarioForzado = new AtomicBoolean();
+    private final FilterChain chain = (req, res) -> primarioForzado.set(DataSourceRoute.isPrimaryForced());
+
+    private void peticion(String method, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/funkos");
+        request.addHeader("X-API-Key", apiKey);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    @Test
+    @DisplayName("Tras escribir, las lecturas del mismo cliente van al primario y las de otros no")
+    void readsAfterOwnWriteUsePrimary() throws Exception {
+        // Act + Assert
+        peticion("GET", "cliente-a");
+        assertFalse(primarioForzado.get());
+
+        peticion("POST", "cliente-a");
+        peticion("GET", "cliente-a");
+        assertTrue(primarioForzado.get());
+
+        peticion("GET", "cliente-b");
+        assertFalse(primarioForzado.get());
+        assertFalse(DataSourceRoute.isPrimaryForced(), "el filtro debe limpiar el hilo al terminar");
+    }
+}
@@ -0,0 +1,158 @@
+package srangeldev.funkoapi.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import srangeldev.funkoapi.mappers.FunkoMapper;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.FunkoCambio;
+import srangeldev.funkoapi.models.enums.TipoCambio;
+import srangeldev.funkoapi.repositories.FunkoCambioRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ChangeFeedServiceTest {
+
+    private FunkoCambioRepository repository;
+    private ChangeFeedService changeFeed;
+    // Secuencia de la BBDD simulada
+    private final AtomicLong secuencia = new AtomicLong(10);
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FunkoCambioRepository.class);
+        when(repository.findMaxSeq()).thenReturn(10L);
+        when(repository.nextSeq()).thenAnswer(inv -> secuencia.incrementAndGet());
+        changeFeed = new ChangeFeedService(repository, new FunkoMapper(), new ObjectMapper().findAndRegisterModules(),
+                4, Duration.ofMinutes(1), 16);
+        changeFeed.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        changeFeed.close();
+    }
+
+    private Funko funko(long id) {
+        return new Funko(id, "Funko " + id, 10.0, null, LocalDate.of(2020, 1, 1), null, null);
+    }
+
+    @Test
+    @DisplayName("Cada cambio se guarda con el siguiente número de la secuencia de la BBDD")
+    void usesDatabaseSequence() {
+        // Act
+        changeFeed.registrar(TipoCambio.CREATE, 1L, funko(1));
+
+        // Assert
+        verify(repository).save(argThat((FunkoCambio c) -> c.getSeq() == 11L && c.getTipo() == TipoCambio.CREATE));
+        assertEquals(11L, changeFeed.getUltimaSecuencia());
+        assertEquals(1L, changeFeed.getCambiosConfirmados());
+    }
+
+    @Test
+    @DisplayName("Los números que toman otros nodos son huecos que no bloquean la entrega")
+    void otherNodesSequencesDoNotBlock() {
+        // Arrange: otro nodo se lleva la 12
+        changeFeed.registrar(TipoCambio.CREATE, 1L, funko(1));
+        secuencia.incrementAndGet();
+
+        // Act
+        changeFeed.registrar(TipoCambio.CREATE, 3L, funko(3));
+
+        // Assert
+        assertEquals(13L, changeFeed.getUltimaSecuencia());
+    }
+
+    @Test
+    @DisplayName("Un evento no se entrega hasta que confirman todas las transacciones con secuencia menor")
+    void deliversInSequenceOrder() {
+        // Arrange: dos transacciones registran cambios (seq 11 y 12)
+        TransactionSynchronizationManager.initSynchronization();
+        changeFeed.registrar(TipoCambio.UPDATE, 1L, funko(1));
+        changeFeed.registrar(TipoCambio.DELETE, 2L, null);
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+
+        // Act + Assert: la 12 confirma primero y espera a la 11
+        syncs.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(10L, changeFeed.getUltimaSecuencia());
+
+        syncs.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(12L, changeFeed.getUltimaSecuencia());
+    }
+
+    @Test
+    @DisplayName("Una transacción deshecha deja un hueco que no bloquea la entrega")
+    void rolledBackSequenceIsSkipped() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        changeFeed.registrar(TipoCambio.CREATE, 1L, funko(1));
+        changeFeed.registrar(TipoCambio.CREATE, 2L, funko(2));
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+
+        // Act
+        syncs.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        syncs.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(12L, changeFeed.getUltimaSecuencia());
+    }
+
+    @Test
+    @DisplayName("Si falla el guardado en la outbox, la secuencia se salta y el error se propaga")
+    void failedOutboxWriteIsSkipped() {
+        // Arrange
+        when(repository.save(any())).thenThrow(new IllegalStateException("BBDD caída"));
+
+        // Act + Assert
+        assertThrows(IllegalStateException.class, () -> changeFeed.registrar(TipoCambio.CREATE, 1L, funko(1)));
+        assertEquals(10L, changeFeed.getUltimaSecuencia());
+        assertEquals(0L, changeFeed.getCambiosConfirmados());
+
+        reset(repository);
+        when(repository.nextSeq()).thenReturn(12L);
+        changeFeed.registrar(TipoCambio.CREATE, 2L, funko(2));
+        assertEquals(12L, changeFeed.getUltimaSecuencia(), "La secuencia fallida no bloquea las siguientes");
+    }
+
+    @Test
+    @DisplayName("Una reanudación que lee la outbox no bloquea la entrega de cambios nuevos")
+    void resumeDoesNotBlockDelivery() throws Exception {
+        // Arrange: la lectura de la outbox se queda esperando
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        when(repository.findTop500BySeqGreaterThanOrderBySeqAsc(0L)).thenAnswer(inv -> {
+            leyendo.countDown();
+            soltar.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        try {
+            // Act
+            changeFeed.suscribir(0L);
+            assertTrue(leyendo.await(5, TimeUnit.SECONDS));
+            changeFeed.registrar(TipoCambio.CREATE, 1L, funko(1));
+
+            // Assert
+            assertEquals(11L, changeFeed.getUltimaSecuencia());
+            assertEquals(1, changeFeed.getSuscriptores());
+        } finally {
+            soltar.countDown();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package srangeldev.funkoapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import srangeldev.funkoapi.repositories.FunkoStore;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FunkoTombstonePurgerTest {
+
+    private FunkoStore repository;
+    private SimpleMeterRegistry meterRegistry;
+    private FunkoTombstonePurger purger;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FunkoStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // Lotes de 2, como mucho 3 lotes por pasada y sin pausa
+        purger = new FunkoTombstonePurger(repository, mock(PlatformTransactionManager.class), meterRegistry,
+                Duration.ofDays(7), 2, 3, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Borra por lotes hasta que un lote viene incompleto")
+    void purgesUntilPartialBatch() {
+        // Arrange
+        when(repository.findTombstoneIds(any(), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(repository.purgeTombstones(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // Act
+        int total = purger.purge();
+
+        // Assert
+        assertEquals(3, total);
+        verify(repository, times(2)).purgeTombstones(anyList());
+        assertEquals(3.0, meterRegistry.get("funko.purge.deleted").counter().count());
+    }
+
+    @Test
+    @DisplayName("No pasa del máximo de lotes por ejecución")
+    void stopsAtMaxBatches() {
+        // Arrange: siempre hay un lote completo pendiente
+        when(repository.findTombstoneIds(any(), eq(2))).thenReturn(List.of(1L, 2L));
+        when(repository.purgeTombstones(anyList())).thenReturn(2);
+
+        // Act
+        int total = purger.purge();
+
+        // Assert
+        assertEquals(6, total);
+        verify(repository, times(3)).findTombstoneIds(any(), eq(2));
+    }
+
+    @Test
+    @DisplayName("Sin tombstones antiguos no borra nada")
+    void nothingToPurge() {
+        // Arrange
+        when(repository.findTombstoneIds(any(), anyInt())).thenReturn(List.of());
+
+        // Act + Assert
+        assertEquals(0, purger.purge());
+        verify(repository, never()).purgeTombstones(anyList());
+    }
+}
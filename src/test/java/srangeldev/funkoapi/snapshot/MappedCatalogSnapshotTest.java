@@ -0,0 +1,92 @@
+package srangeldev.funkoapi.snapshot;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import srangeldev.funkoapi.exceptions.FunkoNotFoundException;
+import srangeldev.funkoapi.models.Funko;
+import srangeldev.funkoapi.models.enums.Categoria;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static Funko funko(long id, String nombre, Double precio, LocalDateTime updatedAt) {
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNombre("MARVEL");
+        return new Funko(id, nombre, precio, categoria, LocalDate.of(2020, 1, 1),
+                LocalDateTime.of(2024, 1, 1, 10, 0), updatedAt);
+    }
+
+    @Test
+    @DisplayName("Lo escrito se lee igual desde el mapeo, buscando por id")
+    void roundTrip() throws Exception {
+        // Arrange: desordenados y con nulos
+        Path fichero = dir.resolve("catalog.snap");
+        LocalDateTime fecha = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_000);
+        CatalogSnapshotWriter.write(List.of(
+                funko(30, "Groot", null, null),
+                funko(10, "Iron Man ñ", 14.99, fecha)), fichero);
+
+        // Act
+        MappedCatalogSnapshot snapshot = MappedCatalogSnapshot.open(fichero);
+
+        // Assert
+        assertEquals(2, snapshot.size());
+        assertEquals(-1, snapshot.indexOf(20));
+        Funko ironMan = snapshot.funko(snapshot.indexOf(10));
+        assertEquals("Iron Man ñ", ironMan.getNombre());
+        assertEquals(14.99, ironMan.getPrecio());
+        assertEquals("MARVEL", ironMan.getCategoria().getNombre());
+        assertEquals(fecha, ironMan.getUpdatedAt());
+        Funko groot = snapshot.funko(snapshot.indexOf(30));
+        assertNull(groot.getPrecio());
+        assertNull(groot.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("El servicio de borde cambia a la instantánea nueva cuando se publica")
+    void serviceHotSwapsOnPublish() throws Exception {
+        // Arrange
+        Path fichero = dir.resolve("catalog.snap");
+        CatalogSnapshotWriter.write(List.of(funko(1, "Uno", 1.0, null)), fichero);
+        SnapshotCatalogService service = new SnapshotCatalogService(fichero);
+        assertThrows(FunkoNotFoundException.class, () -> service.getById(2L));
+
+        // Act
+        CatalogSnapshotWriter.write(List.of(funko(1, "Uno", 1.0, null), funko(2, "Dos", 2.0, null)), fichero);
+        service.reloadIfChanged();
+
+        // Assert
+        assertEquals("Dos", service.getById(2L).getNombre());
+        assertEquals(2, service.getAll().size());
+    }
+
+    @Test
+    @DisplayName("getModifiedSince() filtra sobre el mapeo por updatedAt")
+    void filtersByUpdatedAt() throws Exception {
+        // Arrange
+        Path fichero = dir.resolve("catalog.snap");
+        LocalDateTime corte = LocalDateTime.of(2024, 6, 1, 0, 0);
+        CatalogSnapshotWriter.write(List.of(
+                funko(1, "Viejo", 1.0, corte.minusDays(1)),
+                funko(2, "Nuevo", 2.0, corte.plusDays(1))), fichero);
+        SnapshotCatalogService service = new SnapshotCatalogService(fichero);
+
+        // Act
+        List<Funko> modificados = service.getModifiedSince(corte);
+
+        // Assert
+        assertEquals(1, modificados.size());
+        assertEquals(2L, modificados.get(0).getId());
+    }
+}
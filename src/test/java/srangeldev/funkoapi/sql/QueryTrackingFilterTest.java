@@ -0,0 +1,96 @@
+package srangeldev.funkoapi.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTrackingFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryCountListener listener = new QueryCountListener();
+
+    // Cadena que simula dos consultas durante la petición
+    private final FilterChain twoQueries = (req, res) -> {
+        ExecutionInfo info = new ExecutionInfo();
+        for (int i = 0; i < 2; i++) {
+            listener.beforeQuery(info, List.of());
+            listener.afterQuery(info, List.of());
+        }
+        res.getWriter().write("[]");
+    };
+
+    @Test
+    @DisplayName("Sin modo debug cuenta las sentencias pero no añade cabeceras")
+    void countsWithoutHeaders() throws Exception {
+        // Arrange
+        QueryTrackingFilter filter = new QueryTrackingFilter(registry, 10, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/funkos"), response, twoQueries);
+
+        // Assert
+        assertNull(response.getHeader(QueryTrackingFilter.HEADER_STATEMENTS));
+        assertEquals(2.0, registry.get("funko.sql.statements").summary().totalAmount());
+        assertNull(QueryStatsHolder.current(), "El filtro debe limpiar el hilo al terminar");
+    }
+
+    @Test
+    @DisplayName("En modo debug añade las cabeceras X-SQL-* y conserva el cuerpo")
+    void addsDebugHeaders() throws Exception {
+        // Arrange
+        QueryTrackingFilter filter = new QueryTrackingFilter(registry, 10, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/funkos/1"), response, twoQueries);
+
+        // Assert
+        assertEquals("2", response.getHeader(QueryTrackingFilter.HEADER_STATEMENTS));
+        assertEquals("0", response.getHeader(QueryTrackingFilter.HEADER_ROWS));
+        assertNotNull(response.getHeader(QueryTrackingFilter.HEADER_TIME));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("En modo debug no retiene el cuerpo de SSE ni de los listados en streaming")
+    void skipsStreamingResponses() throws Exception {
+        // Arrange
+        QueryTrackingFilter filter = new QueryTrackingFilter(registry, 10, true);
+        MockHttpServletResponse sse = new MockHttpServletResponse();
+        MockHttpServletResponse listado = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/funkos/events"), sse, twoQueries);
+        filter.doFilter(new MockHttpServletRequest("GET", "/funkos"), listado, twoQueries);
+
+        // Assert: sin cabeceras, pero las métricas se siguen registrando
+        assertNull(sse.getHeader(QueryTrackingFilter.HEADER_STATEMENTS));
+        assertNull(listado.getHeader(QueryTrackingFilter.HEADER_STATEMENTS));
+        assertEquals(4.0, registry.get("funko.sql.statements").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("QueryStatsHolder permite contar consultas desde un test")
+    void holderCountsQueries() {
+        // Arrange
+        QueryStatsHolder.start();
+
+        // Act
+        listener.beforeQuery(new ExecutionInfo(), List.of());
+        listener.afterQuery(new ExecutionInfo(), List.of());
+        QueryStats stats = QueryStatsHolder.stop();
+
+        // Assert
+        assertEquals(1, stats.getStatements());
+        assertNull(QueryStatsHolder.current());
+    }
+}